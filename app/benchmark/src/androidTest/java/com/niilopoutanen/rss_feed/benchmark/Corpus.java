@@ -0,0 +1,54 @@
+package com.niilopoutanen.rss_feed.benchmark;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.parser.Parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Feeds checked in under assets/corpus, read once into memory so that benchmarks don't measure disk access.
+ * The feeds are generated samples modeled on real ones: a small blog with full content,
+ * a news site with media thumbnails, an Atom developer blog and a large podcast feed with 300 episodes.
+ */
+final class Corpus {
+    static final String BLOG_SMALL = "corpus/blog-small.xml";
+    static final String NEWS_MEDIUM = "corpus/news-medium.xml";
+    static final String ATOM = "corpus/dev-atom.xml";
+    static final String PODCAST_LARGE = "corpus/podcast-large.xml";
+    static final String OPML = "corpus/subscriptions.opml";
+
+    private Corpus() {}
+
+    static byte[] bytes(String name) {
+        try (InputStream stream = InstrumentationRegistry.getInstrumentation().getContext().getAssets().open(name)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("Missing corpus file " + name, e);
+        }
+    }
+
+    static String text(String name) {
+        return new String(bytes(name), StandardCharsets.UTF_8);
+    }
+
+    static InputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    static Document document(String name) {
+        return Jsoup.parse(text(name), "", Parser.xmlParser());
+    }
+}
@@ -0,0 +1,103 @@
+package com.niilopoutanen.rss_feed.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.niilopoutanen.rss_feed.parser.DateParser;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+@RunWith(AndroidJUnit4.class)
+public class DateParserBenchmark {
+    private static final String[] RFC822 = {
+            "Mon, 02 Jan 2006 15:04:05 -0700",
+            "Tue, 3 Jan 2006 08:00:00 GMT",
+            "Wed, 04 Jan 2006 23:59:59 +0000",
+            "Thu, 05 Jan 2006 12:30:00 EST"
+    };
+    private static final String[] ISO8601 = {
+            "2006-01-02T15:04:05Z",
+            "2006-01-02T15:04:05+02:00",
+            "2006-01-02T15:04:05.123Z",
+            "2006-01-02T15:04:05.123456-07:00"
+    };
+    private static final String[] MIXED = {
+            RFC822[0], ISO8601[0], RFC822[1], ISO8601[2]
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void rfc822() {
+        run(RFC822);
+    }
+
+    @Test
+    public void iso8601() {
+        run(ISO8601);
+    }
+
+    @Test
+    public void mixed() {
+        run(MIXED);
+    }
+
+    /**
+     * The formatter per call implementation DateParser replaced, kept as the baseline
+     */
+    @Test
+    public void legacyRfc822() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            legacyParse(RFC822[i++ & 3]);
+        }
+    }
+
+    @Test
+    public void legacyIso8601() {
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            legacyParse(ISO8601[i++ & 3]);
+        }
+    }
+
+    private void run(String[] dates) {
+        DateParser parser = DateParser.forSource("benchmark");
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            parser.parse(dates[i++ & 3]);
+        }
+    }
+
+    private static Date legacyParse(String dateString) {
+        List<DateTimeFormatter> formats = new ArrayList<>();
+        formats.add(DateTimeFormatter.ofPattern("E, d MMM yyyy HH:mm:ss Z", Locale.ENGLISH));
+        formats.add(DateTimeFormatter.ofPattern("E, d MMM yyyy HH:mm:ss zzz", Locale.ENGLISH));
+        formats.add(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX"));
+        formats.add(DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss Z", Locale.ENGLISH));
+
+        for (DateTimeFormatter formatter : formats) {
+            try {
+                ZonedDateTime zonedDateTime = ZonedDateTime.parse(dateString, formatter);
+                return Date.from(zonedDateTime.toInstant());
+            } catch (DateTimeParseException ignored) {
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,101 @@
+package com.niilopoutanen.rss_feed.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.niilopoutanen.rss_feed.parser.parsers.AtomParser;
+import com.niilopoutanen.rss_feed.parser.parsers.DocumentParser;
+import com.niilopoutanen.rss_feed.parser.parsers.RssParser;
+import com.niilopoutanen.rss_feed.parser.parsers.StreamParser;
+
+import org.jsoup.nodes.Document;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * Parses each corpus feed end to end, from bytes to posts.
+ * The *Dom benchmarks include building the Jsoup document, the *Parse ones start from an already built document.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FeedParserBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void rssSmallDom() throws Exception {
+        dom(Corpus.BLOG_SMALL, false);
+    }
+
+    @Test
+    public void rssMediumDom() throws Exception {
+        dom(Corpus.NEWS_MEDIUM, false);
+    }
+
+    @Test
+    public void rssLargeDom() throws Exception {
+        dom(Corpus.PODCAST_LARGE, false);
+    }
+
+    @Test
+    public void atomDom() throws Exception {
+        dom(Corpus.ATOM, true);
+    }
+
+    @Test
+    public void rssLargeParse() {
+        parse(Corpus.PODCAST_LARGE, false);
+    }
+
+    @Test
+    public void atomParse() {
+        parse(Corpus.ATOM, true);
+    }
+
+    @Test
+    public void rssSmallStream() throws Exception {
+        stream(Corpus.BLOG_SMALL);
+    }
+
+    @Test
+    public void rssMediumStream() throws Exception {
+        stream(Corpus.NEWS_MEDIUM);
+    }
+
+    @Test
+    public void rssLargeStream() throws Exception {
+        stream(Corpus.PODCAST_LARGE);
+    }
+
+    @Test
+    public void atomStream() throws Exception {
+        stream(Corpus.ATOM);
+    }
+
+    private void dom(String name, boolean atom) throws Exception {
+        byte[] feed = Corpus.bytes(name);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            DocumentParser parser = atom ? new AtomParser() : new RssParser();
+            parser.parse(Corpus.stream(feed), null);
+        }
+    }
+
+    private void parse(String name, boolean atom) {
+        Document document = Corpus.document(name);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            DocumentParser parser = atom ? new AtomParser() : new RssParser();
+            parser.parse(document);
+        }
+    }
+
+    private void stream(String name) throws Exception {
+        byte[] feed = Corpus.bytes(name);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            new StreamParser().parse(Corpus.stream(feed), null);
+        }
+    }
+}
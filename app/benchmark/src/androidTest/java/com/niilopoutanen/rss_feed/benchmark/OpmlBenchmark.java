@@ -0,0 +1,40 @@
+package com.niilopoutanen.rss_feed.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.niilopoutanen.rss_feed.rss.Opml;
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+@RunWith(AndroidJUnit4.class)
+public class OpmlBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void decode() {
+        String opml = Corpus.text(Corpus.OPML);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Opml.decode(opml);
+        }
+    }
+
+    @Test
+    public void encode() throws IOException {
+        List<Source> sources = Opml.decode(Corpus.text(Corpus.OPML));
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Opml.write(sources, new StringWriter());
+        }
+    }
+}
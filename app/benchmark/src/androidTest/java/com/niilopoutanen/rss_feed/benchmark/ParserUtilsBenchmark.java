@@ -0,0 +1,77 @@
+package com.niilopoutanen.rss_feed.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.niilopoutanen.rss_feed.parser.Parser;
+import com.niilopoutanen.rss_feed.parser.WebUtils;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(AndroidJUnit4.class)
+public class ParserUtilsBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    /**
+     * Every pubDate of the medium feed, parsed in turn
+     */
+    @Test
+    public void parseDate() {
+        List<String> dates = new ArrayList<>();
+        for (Element element : Corpus.document(Corpus.NEWS_MEDIUM).select("pubDate")) {
+            dates.add(element.text());
+        }
+
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            Parser.parseDate(dates.get(i++ % dates.size()));
+        }
+    }
+
+    /**
+     * Image lookup in the content:encoded html of the small feed
+     */
+    @Test
+    public void parsePattern() {
+        Elements contents = Corpus.document(Corpus.BLOG_SMALL).select("content|encoded");
+        List<String> html = new ArrayList<>();
+        for (Element content : contents) {
+            html.add(content.toString());
+        }
+
+        BenchmarkState state = benchmarkRule.getState();
+        int i = 0;
+        while (state.keepRunning()) {
+            Parser.parsePattern(html.get(i++ % html.size()), "src");
+        }
+    }
+
+    @Test
+    public void isRss() {
+        Document document = Corpus.document(Corpus.PODCAST_LARGE);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            WebUtils.isRss(document);
+        }
+    }
+
+    @Test
+    public void isAtom() {
+        Document document = Corpus.document(Corpus.ATOM);
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            WebUtils.isAtom(document);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.niilopoutanen.rss_feed.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.niilopoutanen.rss_feed.parser.Parser;
+import com.niilopoutanen.rss_feed.parser.PostMerge;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the posts of every corpus feed into one feed, the way the posts of all sources are combined
+ */
+@RunWith(AndroidJUnit4.class)
+public class PostMergeBenchmark {
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void merge() {
+        List<List<Post>> runs = new ArrayList<>();
+        for (String feed : new String[]{Corpus.BLOG_SMALL, Corpus.NEWS_MEDIUM, Corpus.ATOM, Corpus.PODCAST_LARGE}) {
+            Parser parser = new Parser();
+            parser.parse(Corpus.document(feed));
+            runs.add(parser.posts);
+        }
+
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            PostMerge.merge(runs);
+        }
+    }
+}
@@ -22,6 +22,7 @@ public class StatusView extends LinearLayoutCompat {
     private final List<Runnable> finalEventQueue = new ArrayList<>();
     private final Handler queueHandler = new Handler();
     private final int ADD_STATUS_DELAY = 1000;
+    private TextView progressText;
     public StatusView(@NonNull Context context) {
         super(context);
         init();
@@ -39,6 +40,28 @@ public class StatusView extends LinearLayoutCompat {
 
     public void clearMessages(){
         removeAllViews();
+        progressText = null;
+    }
+
+    /**
+     * Shows a message that is updated in place instead of queued, safe to call from any thread
+     */
+    public void setProgress(String msg){
+        post(() -> {
+            if(progressText == null){
+                progressText = createText();
+                super.addView(progressText);
+            }
+            progressText.setText(msg);
+        });
+    }
+    public void clearProgress(){
+        post(() -> {
+            if(progressText != null){
+                removeView(progressText);
+                progressText = null;
+            }
+        });
     }
     public void addStatus(String msg){
         Status status = new Status(msg, Status.Type.PROCESSING);
@@ -95,7 +118,7 @@ public class StatusView extends LinearLayoutCompat {
         queueHandler.postDelayed(this::processQueue, ADD_STATUS_DELAY);
     }
     private void addToLayout(Status status){
-        TextView statusText = new TextView(getContext());
+        TextView statusText = createText();
 
         String msg = status.msg;
         if(status.type == Status.Type.PROCESSING){
@@ -108,12 +131,21 @@ public class StatusView extends LinearLayoutCompat {
             msg += " ❌";
         }
         statusText.setText(msg);
-
-        statusText.setTextColor(getContext().getColor(R.color.textSecondary));
-        statusText.setGravity(Gravity.CENTER_HORIZONTAL);
-        statusText.setTextSize(17);
-        statusText.setTypeface(getContext().getResources().getFont(R.font.inter_medium));
-        super.addView(statusText);
+        // Queued messages stay above the progress message
+        if(progressText != null){
+            super.addView(statusText, indexOfChild(progressText));
+        }
+        else{
+            super.addView(statusText);
+        }
+    }
+    private TextView createText(){
+        TextView text = new TextView(getContext());
+        text.setTextColor(getContext().getColor(R.color.textSecondary));
+        text.setGravity(Gravity.CENTER_HORIZONTAL);
+        text.setTextSize(17);
+        text.setTypeface(getContext().getResources().getFont(R.font.inter_medium));
+        return text;
     }
 
     public static class Status{
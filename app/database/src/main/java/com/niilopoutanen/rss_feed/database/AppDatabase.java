@@ -5,18 +5,37 @@ import android.content.Context;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
 
+import com.niilopoutanen.rss_feed.database.compatibility.Migrations;
+import com.niilopoutanen.rss_feed.database.dao.DiscoveryDao;
+import com.niilopoutanen.rss_feed.database.dao.HealthDao;
+import com.niilopoutanen.rss_feed.database.dao.PostDao;
 import com.niilopoutanen.rss_feed.database.dao.SourceDao;
+import com.niilopoutanen.rss_feed.database.dao.SyncDao;
+import com.niilopoutanen.rss_feed.database.dao.ValidatorDao;
+import com.niilopoutanen.rss_feed.rss.DiscoveryEntry;
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
+import com.niilopoutanen.rss_feed.rss.FeedValidator;
+import com.niilopoutanen.rss_feed.rss.Post;
+import com.niilopoutanen.rss_feed.rss.PostFts;
 import com.niilopoutanen.rss_feed.rss.Source;
+import com.niilopoutanen.rss_feed.rss.SyncState;
 
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
-@Database(entities = {Source.class}, version = 1)
+@Database(entities = {Source.class, FeedValidator.class, Post.class, DiscoveryEntry.class, SyncState.class, FeedHealth.class, PostFts.class}, version = 10)
+@TypeConverters(Converters.class)
 public abstract class AppDatabase extends RoomDatabase {
     public static String DB_NAME = "rss_feed_db";
 
     public abstract SourceDao sourceDao();
+    public abstract ValidatorDao validatorDao();
+    public abstract PostDao postDao();
+    public abstract DiscoveryDao discoveryDao();
+    public abstract SyncDao syncDao();
+    public abstract HealthDao healthDao();
 
     private static volatile AppDatabase instance;
     private static final int NUMBER_OF_THREADS = 4;
@@ -30,6 +49,7 @@ public abstract class AppDatabase extends RoomDatabase {
                                 AppDatabase.class,
                                 DB_NAME
                       )
+                      .addMigrations(Migrations.MIGRATION_1_2, Migrations.MIGRATION_2_3, Migrations.MIGRATION_3_4, Migrations.MIGRATION_4_5, Migrations.MIGRATION_5_6, Migrations.MIGRATION_6_7, Migrations.MIGRATION_7_8, Migrations.MIGRATION_8_9, Migrations.MIGRATION_9_10)
                       .build();
         }
         return instance;
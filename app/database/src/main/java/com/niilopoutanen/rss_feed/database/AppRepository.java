@@ -4,25 +4,41 @@ import android.app.Application;
 import android.content.Context;
 
 import androidx.lifecycle.LiveData;
+import androidx.paging.Pager;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 
+import com.niilopoutanen.rss_feed.database.dao.PostDao;
 import com.niilopoutanen.rss_feed.database.dao.SourceDao;
+import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 import java.util.List;
 
 public class AppRepository {
+    private static final int PAGE_SIZE = 30;
+    /**
+     * Pages further away than this from the visible posts are dropped
+     */
+    private static final int MAX_LOADED = 200;
+    private static final PagingConfig PAGING = new PagingConfig(PAGE_SIZE, PAGE_SIZE, false, PAGE_SIZE * 2, MAX_LOADED);
+
     private final SourceDao sourceDao;
+    private final PostDao postDao;
     private final LiveData<List<Source>> sources;
 
     public AppRepository(Application application) {
         AppDatabase appDatabase = AppDatabase.getInstance(application);
         sourceDao = appDatabase.sourceDao();
+        postDao = appDatabase.postDao();
         sources = sourceDao.getAll();
     }
 
     public AppRepository(Context context) {
         AppDatabase appDatabase = AppDatabase.getInstance(context);
         sourceDao = appDatabase.sourceDao();
+        postDao = appDatabase.postDao();
         sources = sourceDao.getAll();
     }
 
@@ -39,4 +55,54 @@ public class AppRepository {
             sourceDao.insert(source);
         });
     }
+
+    /**
+     * Updates a stored source in place, so its posts are kept
+     */
+    public void update(Source source) {
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            sourceDao.update(source);
+        });
+    }
+
+    /**
+     * Stores all the sources in a single transaction
+     */
+    public void insertAll(List<Source> sources) {
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            sourceDao.insertAll(sources);
+        });
+    }
+
+    /**
+     * Stored posts loaded a page at a time. Only a window around the visible posts is kept in memory however long the history grows,
+     * and the pages are reloaded whenever the posts are stored again.
+     * @param sourceId source to show, or 0 for every visible source
+     */
+    public LiveData<PagingData<Post>> getPagedPosts(int sourceId, boolean newestFirst) {
+        Pager<Integer, Post> pager = new Pager<>(PAGING, () -> {
+            if (sourceId == 0) {
+                return newestFirst ? postDao.getNewest() : postDao.getOldest();
+            }
+            return newestFirst ? postDao.getNewestBySource(sourceId) : postDao.getOldestBySource(sourceId);
+        });
+        return PagingLiveData.getLiveData(pager);
+    }
+
+    /**
+     * @param sourceId source to count, or 0 for every visible source
+     */
+    public void countPosts(int sourceId, DatabaseThread<Integer> callback) {
+        AppDatabase.databaseWriteExecutor.execute(() -> callback.complete(sourceId == 0 ? postDao.count() : postDao.countBySource(sourceId)));
+    }
+
+    /**
+     * Stores the latest posts of a source next to its earlier ones
+     */
+    public void insertPosts(Source source, List<Post> posts) {
+        if (source == null || source.id == 0) return;
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            postDao.upsert(source.id, posts);
+        });
+    }
 }
@@ -5,18 +5,19 @@ import android.app.Application;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 
+import com.niilopoutanen.rss_feed.rss.Fingerprint;
 import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AppViewModel extends AndroidViewModel {
     private final AppRepository appRepository;
 
     private final LiveData<List<Source>> sources;
-    private List<Post> posts;
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
 
     public AppViewModel(Application application){
         super(application);
@@ -29,38 +30,24 @@ public class AppViewModel extends AndroidViewModel {
         return sources;
     }
     public void updateSource(Source source){
-        appRepository.insert(source);
-    }
-    public void setPostCache(List<Post> posts){
-        if(posts == null || posts.isEmpty()) return;
-        this.posts = posts;
-    }
-
-    public List<Post> getPostCache() {
-        if(posts == null || posts.isEmpty()) return null;
-        return posts;
-    }
-
-    public boolean isCacheOutdated(List<Post> newList) {
-        if (newList == null || posts == null) return true;
-        if(newList.isEmpty() || posts.isEmpty()) return true;
-        
-        List<Post> l1 = new ArrayList<>(newList);
-        List<Post> l2 = new ArrayList<>(posts);
-
-        Collections.sort(l1);
-        Collections.sort(l2);
-
-        for(int i = 0; i < l1.size(); i++){
-            Post post1 = l1.get(i);
-            Post post2 = l2.get(i);
-            if(post1 == null || post2 == null) return true;
-            if(!post1.equals(post2)){
-                return true;
-            }
+        if(source.id == 0){
+            appRepository.insert(source);
+        }
+        else{
+            appRepository.update(source);
         }
-        return false; // If all posts match, cache is not outdated.
     }
-
-
+    /**
+     * Decides whether the latest posts of a source need to be written, and records their fingerprint if they do.
+     * Failed loads and empty results say nothing about the feed, so they are never written and don't replace the fingerprint.
+     * @param newPosts null if the source could not be loaded
+     * @return true if they differ from the ones seen last time for the same source, or none were seen yet
+     */
+    public boolean isChanged(Source source, List<Post> newPosts) {
+        if (newPosts == null || newPosts.isEmpty()) return false;
+        if (source == null || source.url == null) return true;
+        long fingerprint = Fingerprint.of(newPosts);
+        Long previous = fingerprints.put(source.url, fingerprint);
+        return previous == null || previous != fingerprint;
+    }
 }
@@ -0,0 +1,37 @@
+package com.niilopoutanen.rss_feed.database;
+
+import androidx.room.TypeConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class Converters {
+    /**
+     * Unit separator, can't appear in parsed text
+     */
+    private static final String SEPARATOR = "\u001F";
+
+    @TypeConverter
+    public static Date toDate(Long time) {
+        return time == null ? null : new Date(time);
+    }
+
+    @TypeConverter
+    public static Long fromDate(Date date) {
+        return date == null ? null : date.getTime();
+    }
+
+    @TypeConverter
+    public static List<String> toList(String value) {
+        if (value == null || value.isEmpty()) return new ArrayList<>();
+        return new ArrayList<>(Arrays.asList(value.split(SEPARATOR)));
+    }
+
+    @TypeConverter
+    public static String fromList(List<String> list) {
+        if (list == null || list.isEmpty()) return null;
+        return String.join(SEPARATOR, list);
+    }
+}
@@ -0,0 +1,34 @@
+package com.niilopoutanen.rss_feed.database;
+
+import android.content.Context;
+
+import com.niilopoutanen.rss_feed.database.dao.DiscoveryDao;
+import com.niilopoutanen.rss_feed.parser.DiscoveryCache;
+import com.niilopoutanen.rss_feed.rss.DiscoveryEntry;
+
+public class DiscoveryRepository implements DiscoveryCache {
+    private final DiscoveryDao discoveryDao;
+
+    public DiscoveryRepository(Context context) {
+        discoveryDao = AppDatabase.getInstance(context).discoveryDao();
+    }
+
+    @Override
+    public DiscoveryEntry get(String key) {
+        return discoveryDao.get(key);
+    }
+
+    @Override
+    public void put(DiscoveryEntry entry) {
+        discoveryDao.insert(entry);
+    }
+
+    /**
+     * Drops entries that have expired whether they were found or not
+     */
+    public void prune() {
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            discoveryDao.deleteOlderThan(System.currentTimeMillis() - DiscoveryEntry.FOUND_TTL);
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.niilopoutanen.rss_feed.database;
+
+import android.content.Context;
+
+import com.niilopoutanen.rss_feed.database.dao.PostDao;
+import com.niilopoutanen.rss_feed.database.dao.SourceDao;
+import com.niilopoutanen.rss_feed.database.dao.ValidatorDao;
+import com.niilopoutanen.rss_feed.parser.FeedCache;
+import com.niilopoutanen.rss_feed.rss.FeedValidator;
+import com.niilopoutanen.rss_feed.rss.Post;
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import java.util.List;
+
+/**
+ * Validators are persisted, unchanged feeds are restored from the stored sources and posts
+ */
+public class FeedCacheRepository implements FeedCache {
+    /**
+     * Enough to cover what a feed usually lists at once
+     */
+    private static final int RESTORED_POSTS = 100;
+
+    private final ValidatorDao validatorDao;
+    private final SourceDao sourceDao;
+    private final PostDao postDao;
+
+    public FeedCacheRepository(Context context) {
+        AppDatabase database = AppDatabase.getInstance(context);
+        validatorDao = database.validatorDao();
+        sourceDao = database.sourceDao();
+        postDao = database.postDao();
+    }
+
+    @Override
+    public FeedValidator getValidator(String url) {
+        return validatorDao.get(url);
+    }
+
+    @Override
+    public void putValidator(FeedValidator validator) {
+        validatorDao.insert(validator);
+    }
+
+    @Override
+    public boolean hasPosts(String url) {
+        return postDao.hasPostsByUrl(url);
+    }
+
+    @Override
+    public Source getSource(String url) {
+        return sourceDao.getByUrl(url);
+    }
+
+    @Override
+    public List<Post> getPosts(String url) {
+        return postDao.getLatestByUrl(url, RESTORED_POSTS);
+    }
+}
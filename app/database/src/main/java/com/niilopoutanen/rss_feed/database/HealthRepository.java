@@ -0,0 +1,40 @@
+package com.niilopoutanen.rss_feed.database;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+
+import com.niilopoutanen.rss_feed.database.dao.HealthDao;
+import com.niilopoutanen.rss_feed.parser.HealthStore;
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
+
+import java.util.List;
+
+public class HealthRepository implements HealthStore {
+    private final HealthDao healthDao;
+
+    public HealthRepository(Context context) {
+        healthDao = AppDatabase.getInstance(context).healthDao();
+    }
+
+    @Override
+    public FeedHealth get(String url) {
+        return healthDao.get(url);
+    }
+
+    @Override
+    public void put(FeedHealth health) {
+        healthDao.insert(health);
+    }
+
+    public LiveData<List<FeedHealth>> getAll() {
+        return healthDao.getAll();
+    }
+
+    /**
+     * Drops the health of sources that have been removed
+     */
+    public void prune() {
+        AppDatabase.databaseWriteExecutor.execute(healthDao::deleteOrphans);
+    }
+}
@@ -0,0 +1,158 @@
+package com.niilopoutanen.rss_feed.database;
+
+import android.content.Context;
+
+import androidx.room.Embedded;
+import androidx.room.Ignore;
+
+import com.niilopoutanen.rss_feed.database.dao.PostDao;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Full text search over the stored posts.
+ * Every word of the query is matched as a prefix in the title, description, author and categories.
+ * Queries wait until typing pauses, and a newer query cancels the ones before it.
+ */
+public class PostSearch {
+    private static final long DEBOUNCE = 150;
+    /**
+     * Matches are ranked among the newest ones
+     */
+    private static final int LIMIT = 500;
+    private static final int MAX_TERMS = 8;
+    /**
+     * Weight of a hit in each indexed column, in the order of the post_fts columns
+     */
+    private static final double[] WEIGHTS = {5, 1, 2, 3};
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private final PostDao postDao;
+    private final AtomicInteger generation = new AtomicInteger();
+    private ScheduledFuture<?> pending;
+
+    public PostSearch(Context context) {
+        postDao = AppDatabase.getInstance(context).postDao();
+    }
+
+    /**
+     * Searches after a short delay. The callback runs on a database thread and only for the latest query.
+     * @param sourceId source to search, or 0 for every visible source
+     */
+    public synchronized void search(String query, int sourceId, DatabaseThread<List<Post>> callback) {
+        cancel();
+        int current = generation.get();
+        pending = executor.schedule(() -> {
+            List<Post> results = find(query, sourceId);
+            if (generation.get() == current) {
+                callback.complete(results);
+            }
+        }, DEBOUNCE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops the pending query, and the results of one that is already running
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    /**
+     * @return matching posts, most relevant first
+     */
+    public List<Post> find(String query, int sourceId) {
+        String match = toMatchQuery(query);
+        if (match == null) return new ArrayList<>();
+
+        List<Match> matches = sourceId == 0 ? postDao.search(match, LIMIT) : postDao.searchSource(match, sourceId, LIMIT);
+        for (Match result : matches) {
+            result.rank = rank(result.matchInfo);
+        }
+        // Sorting is stable, so equally relevant posts stay newest first
+        Collections.sort(matches, (a, b) -> Double.compare(b.rank, a.rank));
+
+        List<Post> posts = new ArrayList<>(matches.size());
+        for (Match result : matches) {
+            posts.add(result.post);
+        }
+        return posts;
+    }
+
+    /**
+     * Turns user input into an FTS4 query where every word has to match as a prefix
+     * @return the query, or null if the input has no words
+     */
+    static String toMatchQuery(String input) {
+        if (input == null) return null;
+        StringBuilder query = new StringBuilder();
+        StringBuilder term = new StringBuilder();
+        int terms = 0;
+        for (int i = 0; i <= input.length() && terms < MAX_TERMS; i++) {
+            char c = i < input.length() ? input.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+                continue;
+            }
+            if (term.length() == 0) continue;
+
+            // Quoted and lower case, so words like OR and NOT are not read as operators
+            if (query.length() > 0) query.append(' ');
+            query.append('"').append(term.toString().toLowerCase(Locale.ROOT)).append("*\"");
+            term.setLength(0);
+            terms++;
+        }
+        return query.length() > 0 ? query.toString() : null;
+    }
+
+    /**
+     * Weighted tf-idf score from the 'pcnx' matchinfo of a row.
+     * Hits in rare terms and in the title count the most, repeated hits in the same column count less and less.
+     */
+    static double rank(byte[] matchInfo) {
+        if (matchInfo == null || matchInfo.length < 12) return 0;
+        ByteBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder());
+        int phrases = info.getInt();
+        int columns = info.getInt();
+        int rows = info.getInt();
+        if (matchInfo.length < (3 + 3 * phrases * columns) * 4) return 0;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int hits = info.getInt();
+                info.getInt();
+                int documents = info.getInt();
+                if (hits == 0 || documents == 0) continue;
+
+                double weight = column < WEIGHTS.length ? WEIGHTS[column] : 1;
+                double frequency = hits / (hits + 1.2);
+                double rarity = Math.log(1 + (double) rows / documents);
+                score += weight * frequency * rarity;
+            }
+        }
+        return score;
+    }
+
+    public static class Match {
+        @Embedded
+        public Post post;
+        public byte[] matchInfo;
+        @Ignore
+        double rank;
+    }
+}
@@ -0,0 +1,65 @@
+package com.niilopoutanen.rss_feed.database;
+
+import android.content.Context;
+
+import com.niilopoutanen.rss_feed.database.dao.PostDao;
+import com.niilopoutanen.rss_feed.database.dao.SyncDao;
+import com.niilopoutanen.rss_feed.rss.Post;
+import com.niilopoutanen.rss_feed.rss.Source;
+import com.niilopoutanen.rss_feed.rss.SyncState;
+
+import java.util.List;
+
+/**
+ * Blocking access for the background sync, call from a worker thread
+ */
+public class SyncRepository {
+    private final AppDatabase database;
+    private final SyncDao syncDao;
+    private final PostDao postDao;
+
+    public SyncRepository(Context context) {
+        database = AppDatabase.getInstance(context);
+        syncDao = database.syncDao();
+        postDao = database.postDao();
+    }
+
+    public List<Source> getDueSources(long now) {
+        return syncDao.getDue(now);
+    }
+
+    /**
+     * @return the time the next source is due, or null if there is nothing to sync
+     */
+    public Long getNextCheck() {
+        return syncDao.getNextCheck();
+    }
+
+    public SyncState getState(String url) {
+        return syncDao.get(url);
+    }
+
+    /**
+     * Stores the fetched posts of the source together with its next check
+     * @param posts null if the feed could not be read
+     */
+    public void store(Source source, List<Post> posts, SyncState state) {
+        database.runInTransaction(() -> {
+            if (posts != null && source.id != 0) {
+                postDao.upsert(source.id, posts);
+            }
+            syncDao.insert(state);
+        });
+    }
+
+    /**
+     * @return the newest posts with a link, newest first
+     */
+    public List<Post> getLatestPosts(int limit) {
+        return postDao.getLatest(limit);
+    }
+
+    public void prune() {
+        syncDao.deleteOrphans();
+    }
+}
@@ -1,5 +1,79 @@
 package com.niilopoutanen.rss_feed.database.compatibility;
 
+import androidx.annotation.NonNull;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
 public class Migrations {
+    public static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `validator` (`url` TEXT NOT NULL, `etag` TEXT, `lastModified` TEXT, PRIMARY KEY(`url`))");
+        }
+    };
+
+    public static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `post` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `sourceId` INTEGER NOT NULL, `title` TEXT, `link` TEXT, `description` TEXT, `author` TEXT, `categories` TEXT, `comments` TEXT, `image` TEXT, `pubDate` INTEGER, FOREIGN KEY(`sourceId`) REFERENCES `source`(`id`) ON UPDATE NO ACTION ON DELETE CASCADE )");
+            database.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_post_sourceId_link` ON `post` (`sourceId`, `link`)");
+        }
+    };
+
+    public static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `discovery` (`key` TEXT NOT NULL, `url` TEXT, `type` TEXT, `updated` INTEGER NOT NULL, PRIMARY KEY(`key`))");
+        }
+    };
+
+    public static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `source` ADD COLUMN `folder` TEXT");
+        }
+    };
+
+    public static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `sync` (`url` TEXT NOT NULL, `lastCheck` INTEGER NOT NULL, `nextCheck` INTEGER NOT NULL, PRIMARY KEY(`url`))");
+        }
+    };
+
+    public static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `health` (`url` TEXT NOT NULL, `failures` INTEGER NOT NULL, `lastStatus` INTEGER NOT NULL, `retryAfter` INTEGER NOT NULL, `blockedUntil` INTEGER NOT NULL, `updated` INTEGER NOT NULL, PRIMARY KEY(`url`))");
+        }
+    };
+
+    public static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `post_fts` USING FTS4(`title` TEXT, `description` TEXT, `author` TEXT, `categories` TEXT, tokenize=unicode61, content=`post`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_post_fts_BEFORE_UPDATE BEFORE UPDATE ON `post` BEGIN DELETE FROM `post_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_post_fts_BEFORE_DELETE BEFORE DELETE ON `post` BEGIN DELETE FROM `post_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_post_fts_AFTER_UPDATE AFTER UPDATE ON `post` BEGIN INSERT INTO `post_fts`(`docid`, `title`, `description`, `author`, `categories`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`, NEW.`author`, NEW.`categories`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_post_fts_AFTER_INSERT AFTER INSERT ON `post` BEGIN INSERT INTO `post_fts`(`docid`, `title`, `description`, `author`, `categories`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`description`, NEW.`author`, NEW.`categories`); END");
+            database.execSQL("INSERT INTO `post_fts`(`post_fts`) VALUES ('rebuild')");
+        }
+    };
+
+    public static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_post_pubDate` ON `post` (`pubDate`)");
+        }
+    };
 
+    /**
+     * Posts are no longer pruned, so the posts of a source are read in date order from an index instead of sorted each time
+     */
+    public static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase database) {
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_post_sourceId_pubDate` ON `post` (`sourceId`, `pubDate`)");
+        }
+    };
 }
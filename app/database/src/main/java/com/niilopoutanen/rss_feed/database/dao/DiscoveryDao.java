@@ -0,0 +1,20 @@
+package com.niilopoutanen.rss_feed.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.niilopoutanen.rss_feed.rss.DiscoveryEntry;
+
+@Dao
+public interface DiscoveryDao {
+    @Query("SELECT * FROM discovery WHERE `key`=:key")
+    DiscoveryEntry get(String key);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(DiscoveryEntry entry);
+
+    @Query("DELETE FROM discovery WHERE updated < :before")
+    void deleteOlderThan(long before);
+}
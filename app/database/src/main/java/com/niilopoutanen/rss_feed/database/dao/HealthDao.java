@@ -0,0 +1,26 @@
+package com.niilopoutanen.rss_feed.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
+
+import java.util.List;
+
+@Dao
+public interface HealthDao {
+    @Query("SELECT * FROM health WHERE url=:url")
+    FeedHealth get(String url);
+
+    @Query("SELECT * FROM health")
+    LiveData<List<FeedHealth>> getAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(FeedHealth health);
+
+    @Query("DELETE FROM health WHERE url NOT IN (SELECT url FROM source WHERE url IS NOT NULL)")
+    void deleteOrphans();
+}
@@ -0,0 +1,114 @@
+package com.niilopoutanen.rss_feed.database.dao;
+
+import androidx.paging.PagingSource;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import com.niilopoutanen.rss_feed.database.PostSearch;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Dao
+public interface PostDao {
+    /**
+     * Posts of every visible source, newest first
+     */
+    @Query("SELECT post.* FROM post INNER JOIN source ON post.sourceId = source.id WHERE source.visible = 1 ORDER BY pubDate DESC, post.id DESC")
+    PagingSource<Integer, Post> getNewest();
+
+    @Query("SELECT post.* FROM post INNER JOIN source ON post.sourceId = source.id WHERE source.visible = 1 ORDER BY pubDate ASC, post.id ASC")
+    PagingSource<Integer, Post> getOldest();
+
+    @Query("SELECT * FROM post WHERE sourceId=:sourceId ORDER BY pubDate DESC, id DESC")
+    PagingSource<Integer, Post> getNewestBySource(int sourceId);
+
+    @Query("SELECT * FROM post WHERE sourceId=:sourceId ORDER BY pubDate ASC, id ASC")
+    PagingSource<Integer, Post> getOldestBySource(int sourceId);
+
+    /**
+     * Newest posts of every visible source that have a link
+     */
+    @Query("SELECT post.* FROM post INNER JOIN source ON post.sourceId = source.id WHERE source.visible = 1 AND post.link IS NOT NULL ORDER BY pubDate DESC, post.id DESC LIMIT :limit")
+    List<Post> getLatest(int limit);
+
+    /**
+     * Newest posts of the source with the feed url
+     */
+    @Query("SELECT * FROM post WHERE sourceId = (SELECT id FROM source WHERE url=:url LIMIT 1) ORDER BY pubDate DESC, id DESC LIMIT :limit")
+    List<Post> getLatestByUrl(String url, int limit);
+
+    @Query("SELECT EXISTS(SELECT 1 FROM post WHERE sourceId = (SELECT id FROM source WHERE url=:url LIMIT 1))")
+    boolean hasPostsByUrl(String url);
+
+    @Query("SELECT COUNT(*) FROM post INNER JOIN source ON post.sourceId = source.id WHERE source.visible = 1")
+    int count();
+
+    @Query("SELECT COUNT(*) FROM post WHERE sourceId=:sourceId")
+    int countBySource(int sourceId);
+
+    /**
+     * Posts with the same link as an earlier one in the list are dropped.
+     * REPLACE would remove the earlier row without running the delete triggers that keep the search index in sync.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<Post> posts);
+
+    @Update
+    void updateAll(List<Post> posts);
+
+    @Query("SELECT * FROM post WHERE sourceId=:sourceId AND link=:link")
+    Post findByLink(int sourceId, String link);
+
+    @Query("SELECT * FROM post WHERE sourceId=:sourceId AND link IS NULL AND title=:title LIMIT 1")
+    Post findByTitle(int sourceId, String title);
+
+    /**
+     * Adds the new posts of a source and updates the ones that have changed, matched by link or by title if they have none.
+     * Earlier posts are kept, and unchanged ones are not written so their search index rows stay as they are.
+     */
+    @Transaction
+    default void upsert(int sourceId, List<Post> posts) {
+        List<Post> added = new ArrayList<>();
+        List<Post> changed = new ArrayList<>();
+        for (Post post : posts) {
+            if (post.link == null && post.title == null) continue;
+            post.setSourceId(sourceId);
+
+            Post stored = post.link != null ? findByLink(sourceId, post.link) : findByTitle(sourceId, post.title);
+            if (stored == null) {
+                added.add(post);
+            }
+            else {
+                post.setId(stored.getId());
+                if (!stored.hasSameContent(post) || !stored.getCategories().equals(post.getCategories())) {
+                    changed.add(post);
+                }
+            }
+        }
+        insertAll(added);
+        updateAll(changed);
+    }
+
+    /**
+     * Matching posts of every visible source with their FTS4 match info, newest first
+     */
+    @Query("SELECT post.*, matchinfo(post_fts, 'pcnx') AS matchInfo FROM post_fts " +
+            "INNER JOIN post ON post.id = post_fts.docid " +
+            "INNER JOIN source ON post.sourceId = source.id " +
+            "WHERE post_fts MATCH :query AND source.visible = 1 ORDER BY post.pubDate DESC LIMIT :limit")
+    List<PostSearch.Match> search(String query, int limit);
+
+    @Query("SELECT post.*, matchinfo(post_fts, 'pcnx') AS matchInfo FROM post_fts " +
+            "INNER JOIN post ON post.id = post_fts.docid " +
+            "WHERE post_fts MATCH :query AND post.sourceId = :sourceId ORDER BY post.pubDate DESC LIMIT :limit")
+    List<PostSearch.Match> searchSource(String query, int sourceId, int limit);
+
+    @Query("DELETE FROM post")
+    void deleteAll();
+}
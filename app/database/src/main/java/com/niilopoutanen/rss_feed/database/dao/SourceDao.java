@@ -21,12 +21,21 @@ public interface SourceDao {
     @Query("SELECT * FROM source WHERE id=:id")
     LiveData<Source> getById(int id);
 
+    @Query("SELECT * FROM source WHERE url=:url LIMIT 1")
+    Source getByUrl(String url);
+
     @Delete
     void delete(Source source);
 
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    /**
+     * For new sources only. Replacing an existing row would delete its posts through the foreign key, use update for those.
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
     void insert(Source source);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<Source> sources);
+
     @Update
     void update(Source source);
 
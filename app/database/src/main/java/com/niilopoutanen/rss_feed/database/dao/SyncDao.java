@@ -0,0 +1,35 @@
+package com.niilopoutanen.rss_feed.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.niilopoutanen.rss_feed.rss.Source;
+import com.niilopoutanen.rss_feed.rss.SyncState;
+
+import java.util.List;
+
+@Dao
+public interface SyncDao {
+    @Query("SELECT * FROM sync WHERE url=:url")
+    SyncState get(String url);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(SyncState state);
+
+    /**
+     * Visible sources that are due, including the ones that have never been synced
+     */
+    @Query("SELECT source.* FROM source LEFT JOIN sync ON sync.url = source.url WHERE source.visible = 1 AND (sync.nextCheck IS NULL OR sync.nextCheck <= :now)")
+    List<Source> getDue(long now);
+
+    /**
+     * @return the earliest next check of the visible sources, 0 if some have never been synced, or null if there are no sources
+     */
+    @Query("SELECT MIN(IFNULL(sync.nextCheck, 0)) FROM source LEFT JOIN sync ON sync.url = source.url WHERE source.visible = 1")
+    Long getNextCheck();
+
+    @Query("DELETE FROM sync WHERE url NOT IN (SELECT url FROM source WHERE url IS NOT NULL)")
+    void deleteOrphans();
+}
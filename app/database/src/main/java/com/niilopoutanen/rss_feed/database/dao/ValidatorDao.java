@@ -0,0 +1,20 @@
+package com.niilopoutanen.rss_feed.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import com.niilopoutanen.rss_feed.rss.FeedValidator;
+
+@Dao
+public interface ValidatorDao {
+    @Query("SELECT * FROM validator WHERE url=:url")
+    FeedValidator get(String url);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(FeedValidator validator);
+
+    @Query("DELETE FROM validator")
+    void deleteAll();
+}
@@ -20,7 +20,6 @@ import com.google.firebase.crashlytics.FirebaseCrashlytics;
 import com.niilopoutanen.rss_feed.common.PrimaryButton;
 import com.niilopoutanen.rss_feed.common.StatusView;
 import com.niilopoutanen.rss_feed.database.AppRepository;
-import com.niilopoutanen.rss_feed.parser.IconFinder;
 import com.niilopoutanen.rss_feed.rss.Opml;
 import com.niilopoutanen.rss_feed.rss.Source;
 
@@ -59,18 +58,22 @@ public class ImportActivity extends AppCompatActivity {
                         if (sources != null && !sources.isEmpty()) {
                             AppRepository repository = new AppRepository(this);
                             statusView.addStatus(com.niilopoutanen.rss_feed.common.R.string.loading_icons);
-                            for (Source source : sources) {
-                                if(source.image == null || source.image.isEmpty()){
-                                    source.image = IconFinder.get(source.url);
-                                }
-                                repository.insert(source);
-                            }
+                            SourceImporter.Result resolved = SourceImporter.resolve(sources, (done, total) ->
+                                    statusView.setProgress(getString(com.niilopoutanen.rss_feed.common.R.string.import_progress, done, total)));
+                            List<Source> imported = resolved.sources;
+                            int unresolved = resolved.unresolved.size();
+                            repository.insertAll(imported);
                             runOnUiThread(() -> {
-                                statusView.addStatus(getResources().getQuantityString(com.niilopoutanen.rss_feed.common.R.plurals.imported_sources, sources.size(), sources.size()),
+                                statusView.clearProgress();
+                                if (unresolved > 0) {
+                                    statusView.addStatus(getResources().getQuantityString(com.niilopoutanen.rss_feed.common.R.plurals.unresolved_sources, unresolved, unresolved),
+                                            StatusView.Status.Type.FAILURE);
+                                }
+                                statusView.addStatus(getResources().getQuantityString(com.niilopoutanen.rss_feed.common.R.plurals.imported_sources, imported.size(), imported.size()),
                                         StatusView.Status.Type.SUCCESS);
                                 statusView.addFinalEvent(() -> primaryButton.setIsEnabled(true));
                                 Bundle params = new Bundle();
-                                params.putString("source_count", String.valueOf(sources.size()));
+                                params.putString("source_count", String.valueOf(imported.size()));
                                 FirebaseAnalytics.getInstance(ImportActivity.this).logEvent("import_sources", params);
                             });
 
@@ -0,0 +1,115 @@
+package com.niilopoutanen.rss_feed.manager;
+
+import android.util.Log;
+
+import com.niilopoutanen.rss_feed.parser.FeedFinder;
+import com.niilopoutanen.rss_feed.parser.FetchScheduler;
+import com.niilopoutanen.rss_feed.parser.IconFinder;
+import com.niilopoutanen.rss_feed.parser.RSSException;
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates imported sources and resolves their icons.
+ * Sources are checked in parallel through the fetch scheduler, so the limits on concurrent and per host fetches apply.
+ */
+public class SourceImporter {
+    public interface ProgressListener {
+        void onProgress(int done, int total);
+    }
+
+    /**
+     * Sources of an import, split by whether their feed could be checked
+     */
+    public static class Result {
+        /**
+         * Every source in its original order. The ones that could not be checked keep the url from the file.
+         */
+        public final List<Source> sources = new ArrayList<>();
+        public final List<Source> unresolved = new ArrayList<>();
+    }
+
+    /**
+     * Blocks until every source has been checked.
+     * Sources that fail, have no feed or time out are kept as they are, so an import without network still keeps them.
+     */
+    public static Result resolve(List<Source> sources, ProgressListener listener) {
+        FetchScheduler scheduler = FetchScheduler.getInstance();
+        AtomicInteger done = new AtomicInteger();
+        int total = sources.size();
+
+        List<Future<Found>> tasks = new ArrayList<>(total);
+        for (Source source : sources) {
+            String url = source.url;
+            String image = source.image;
+            tasks.add(scheduler.submit(url, () -> resolve(url, image), task -> {
+                if (listener != null) {
+                    listener.onProgress(done.incrementAndGet(), total);
+                }
+            }));
+        }
+
+        Result result = new Result();
+        for (int i = 0; i < total; i++) {
+            Source source = sources.get(i);
+            result.sources.add(source);
+            Found found = null;
+            try {
+                found = tasks.get(i).get();
+            } catch (ExecutionException | CancellationException e) {
+                // Timed out or failed, the source is kept unchecked
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            if (found == null) {
+                Log.i("SKIPPED", "Could not check source " + source.url);
+                result.unresolved.add(source);
+                continue;
+            }
+            source.url = found.url;
+            source.image = found.image;
+        }
+        return result;
+    }
+
+    /**
+     * Runs on a fetch thread. The source itself is only updated once the result is collected,
+     * so a check that is still running after its deadline can't change it.
+     * @return the feed url and icon of the source, or null if it has no feed
+     */
+    private static Found resolve(String url, String image) {
+        try {
+            FeedFinder finder = new FeedFinder();
+            URL feed = finder.find(url);
+            if (feed == null) {
+                return null;
+            }
+            url = feed.toString();
+        } catch (RSSException e) {
+            return null;
+        }
+
+        if (image == null || image.isEmpty()) {
+            image = IconFinder.get(url);
+        }
+        return new Found(url, image);
+    }
+
+    private static class Found {
+        private final String url;
+        private final String image;
+
+        Found(String url, String image) {
+            this.url = url;
+            this.image = image;
+        }
+    }
+}
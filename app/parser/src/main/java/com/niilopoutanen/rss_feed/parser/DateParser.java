@@ -0,0 +1,348 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import java.text.ParsePosition;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Parses feed dates without exceptions or per call formatters.
+ * RFC 822 and ISO 8601 are read by hand, anything else is tried against formatters that are built once.
+ * Each instance remembers the format that last matched and tries it first among its group.
+ */
+public class DateParser {
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final int NO_ZONE = Integer.MIN_VALUE;
+
+    private static final int FORMAT_RFC822 = 0;
+    private static final int FORMAT_ISO8601 = 1;
+    private static final int FORMAT_FORMATTED = 2;
+
+    /**
+     * Strict so that invalid days are rejected instead of moved to the end of the month
+     */
+    private static final DateTimeFormatter[] FORMATTERS = {
+            DateTimeFormatter.ofPattern("E, d MMM uuuu HH:mm:ss Z", Locale.ENGLISH).withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("E, d MMM uuuu HH:mm:ss zzz", Locale.ENGLISH).withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ssXXX").withResolverStyle(ResolverStyle.STRICT),
+            DateTimeFormatter.ofPattern("EEE, dd MMM uuuu HH:mm:ss Z", Locale.ENGLISH).withResolverStyle(ResolverStyle.STRICT)
+    };
+    private static final int FORMAT_COUNT = FORMAT_FORMATTED + FORMATTERS.length;
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"};
+    private static final String[] ZONES = {"GMT", "UTC", "UT", "Z", "EST", "EDT", "CST", "CDT", "MST", "MDT", "PST", "PDT"};
+    private static final int[] ZONE_OFFSETS = {0, 0, 0, 0, -300, -240, -360, -300, -420, -360, -480, -420};
+
+    private static final DateParser shared = new DateParser();
+    private static final Map<String, DateParser> sources = new ConcurrentHashMap<>();
+
+    private volatile int preferred = FORMAT_RFC822;
+
+    /**
+     * Parser without source specific memory
+     */
+    public static DateParser getShared() {
+        return shared;
+    }
+
+    /**
+     * @return parser that remembers the date format of the feed at the url
+     */
+    public static DateParser forSource(String url) {
+        if (url == null) return shared;
+        return sources.computeIfAbsent(url, key -> new DateParser());
+    }
+
+    /**
+     * @return the date, or null if it is not in any known format
+     */
+    public Date parse(String text) {
+        if (text == null) return null;
+
+        int first = preferred;
+        for (int i = 0; i < FORMAT_COUNT; i++) {
+            int format = order(i, first);
+            long time = parse(text, format);
+            if (time != INVALID) {
+                if (format != first) preferred = format;
+                return new Date(time);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The formats read by hand always go before the formatters, which read some zone names like EST differently.
+     * Within each group the format that matched last goes first.
+     * @return the format to try at the index
+     */
+    private static int order(int index, int first) {
+        int group = index < FORMAT_FORMATTED ? 0 : FORMAT_FORMATTED;
+        int end = group == 0 ? FORMAT_FORMATTED : FORMAT_COUNT;
+        if (first < group || first >= end) return index;
+        if (index == group) return first;
+        return index <= first ? index - 1 : index;
+    }
+
+    private static long parse(String text, int format) {
+        switch (format) {
+            case FORMAT_RFC822:
+                return parseRfc822(text);
+            case FORMAT_ISO8601:
+                return parseIso8601(text);
+            default:
+                return parseFormatted(text, FORMATTERS[format - FORMAT_FORMATTED]);
+        }
+    }
+
+    /**
+     * [Day,] d Mon yyyy HH:mm[:ss] zone
+     */
+    static long parseRfc822(String s) {
+        int len = s.length();
+        int i = skipSpaces(s, 0);
+
+        if (i < len && isLetter(s.charAt(i))) {
+            while (i < len && isLetter(s.charAt(i))) i++;
+            if (i < len && s.charAt(i) == ',') i++;
+            i = skipSpaces(s, i);
+        }
+
+        int start = i;
+        while (i < len && isDigit(s.charAt(i))) i++;
+        if (i - start < 1 || i - start > 2) return INVALID;
+        int day = number(s, start, i);
+        i = skipSeparators(s, i);
+
+        if (i + 3 > len) return INVALID;
+        int month = month(s, i);
+        if (month < 0) return INVALID;
+        i += 3;
+        while (i < len && isLetter(s.charAt(i))) i++;
+        i = skipSeparators(s, i);
+
+        start = i;
+        while (i < len && isDigit(s.charAt(i))) i++;
+        int year = number(s, start, i);
+        if (i - start == 2) {
+            year += year < 50 ? 2000 : 1900;
+        }
+        else if (i - start != 4) {
+            return INVALID;
+        }
+        i = skipSpaces(s, i);
+
+        start = i;
+        while (i < len && isDigit(s.charAt(i))) i++;
+        if (i - start < 1 || i - start > 2 || i >= len || s.charAt(i) != ':') return INVALID;
+        int hour = number(s, start, i);
+        i++;
+        if (!hasDigits(s, i, 2)) return INVALID;
+        int minute = number(s, i, i + 2);
+        i += 2;
+        int second = 0;
+        if (i < len && s.charAt(i) == ':') {
+            if (!hasDigits(s, i + 1, 2)) return INVALID;
+            second = number(s, i + 1, i + 3);
+            i += 3;
+        }
+        i = skipSpaces(s, i);
+
+        int offset = 0;
+        if (i < len) {
+            int end = zoneEnd(s, i);
+            offset = zone(s, i, end);
+            if (offset == NO_ZONE || skipSpaces(s, end) != len) return INVALID;
+        }
+        return toEpoch(year, month, day, hour, minute, second, 0, offset);
+    }
+
+    /**
+     * yyyy-MM-dd[(T| )HH:mm[:ss[.fraction]][zone]]
+     */
+    static long parseIso8601(String s) {
+        int len = s.length();
+        int i = skipSpaces(s, 0);
+        while (len > i && isWhitespace(s.charAt(len - 1))) len--;
+
+        if (!hasDigits(s, i, 4) || !isChar(s, i + 4, '-') || !hasDigits(s, i + 5, 2) || !isChar(s, i + 7, '-') || !hasDigits(s, i + 8, 2)) {
+            return INVALID;
+        }
+        int year = number(s, i, i + 4);
+        int month = number(s, i + 5, i + 7);
+        int day = number(s, i + 8, i + 10);
+        i += 10;
+        if (i == len) return toEpoch(year, month, day, 0, 0, 0, 0, 0);
+
+        char separator = s.charAt(i);
+        if (separator != 'T' && separator != 't' && separator != ' ') return INVALID;
+        i++;
+
+        if (!hasDigits(s, i, 2) || !isChar(s, i + 2, ':') || !hasDigits(s, i + 3, 2)) return INVALID;
+        int hour = number(s, i, i + 2);
+        int minute = number(s, i + 3, i + 5);
+        i += 5;
+
+        int second = 0;
+        int millis = 0;
+        if (isChar(s, i, ':')) {
+            if (!hasDigits(s, i + 1, 2)) return INVALID;
+            second = number(s, i + 1, i + 3);
+            i += 3;
+
+            if (isChar(s, i, '.') || isChar(s, i, ',')) {
+                i++;
+                int start = i;
+                while (i < len && isDigit(s.charAt(i))) {
+                    if (i - start < 3) millis = millis * 10 + (s.charAt(i) - '0');
+                    i++;
+                }
+                if (i == start) return INVALID;
+                for (int digits = i - start; digits < 3; digits++) millis *= 10;
+            }
+        }
+
+        int offset = 0;
+        if (i < len) {
+            offset = zone(s, i, len);
+            if (offset == NO_ZONE) return INVALID;
+        }
+        return toEpoch(year, month, day, hour, minute, second, millis, offset);
+    }
+
+    /**
+     * Checks the text with parseUnresolved first so that only semantically invalid dates can throw
+     */
+    private static long parseFormatted(String text, DateTimeFormatter formatter) {
+        ParsePosition position = new ParsePosition(0);
+        if (formatter.parseUnresolved(text, position) == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+            return INVALID;
+        }
+        try {
+            return ZonedDateTime.parse(text, formatter).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return INVALID;
+        }
+    }
+
+    /**
+     * @return offset from UTC in minutes, or NO_ZONE
+     */
+    private static int zone(String s, int start, int end) {
+        if (start >= end) return NO_ZONE;
+        char sign = s.charAt(start);
+        if (sign == '+' || sign == '-') {
+            int i = start + 1;
+            if (!hasDigits(s, i, 2)) return NO_ZONE;
+            int hours = number(s, i, i + 2);
+            i += 2;
+            int minutes = 0;
+            if (i < end) {
+                if (s.charAt(i) == ':') i++;
+                if (i + 2 != end || !hasDigits(s, i, 2)) return NO_ZONE;
+                minutes = number(s, i, i + 2);
+            }
+            int offset = hours * 60 + minutes;
+            return sign == '-' ? -offset : offset;
+        }
+
+        int length = end - start;
+        for (int z = 0; z < ZONES.length; z++) {
+            if (ZONES[z].length() == length && s.regionMatches(true, start, ZONES[z], 0, length)) {
+                return ZONE_OFFSETS[z];
+            }
+        }
+        return NO_ZONE;
+    }
+
+    private static int zoneEnd(String s, int i) {
+        int len = s.length();
+        if (i < len && (s.charAt(i) == '+' || s.charAt(i) == '-')) i++;
+        while (i < len && !isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static long toEpoch(int year, int month, int day, int hour, int minute, int second, int millis, int offset) {
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) return INVALID;
+        if (hour > 23 || minute > 59 || second > 60) return INVALID;
+        if (second == 60) second = 59;
+
+        long days = daysFromCivil(year, month, day);
+        long minutes = days * 1440 + hour * 60 + minute - offset;
+        return (minutes * 60 + second) * 1000 + millis;
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic Gregorian calendar
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return (long) era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static int month(String s, int i) {
+        for (int m = 0; m < MONTHS.length; m++) {
+            if (s.regionMatches(true, i, MONTHS[m], 0, 3)) return m + 1;
+        }
+        return -1;
+    }
+
+    private static int number(String s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean hasDigits(String s, int start, int count) {
+        if (start + count > s.length()) return false;
+        for (int i = start; i < start + count; i++) {
+            if (!isDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isChar(String s, int i, char c) {
+        return i < s.length() && s.charAt(i) == c;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && isWhitespace(s.charAt(i))) i++;
+        return i;
+    }
+
+    private static int skipSeparators(String s, int i) {
+        while (i < s.length() && (isWhitespace(s.charAt(i)) || s.charAt(i) == '-')) i++;
+        return i;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+}
@@ -0,0 +1,15 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.DiscoveryEntry;
+
+/**
+ * Storage for resolved feed and icon urls. Called from background threads.
+ */
+public interface DiscoveryCache {
+    /**
+     * @return the entry, or null if the key has never been looked up
+     */
+    DiscoveryEntry get(String key);
+
+    void put(DiscoveryEntry entry);
+}
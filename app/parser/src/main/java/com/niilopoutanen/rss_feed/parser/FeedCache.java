@@ -0,0 +1,33 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.FeedValidator;
+import com.niilopoutanen.rss_feed.rss.Post;
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import java.util.List;
+
+/**
+ * Storage for what is needed to skip re-downloading unchanged feeds.
+ * A 304 response is answered with what was stored of the feed, so validators are only sent for feeds that have stored posts.
+ * Called from fetch threads.
+ */
+public interface FeedCache {
+    FeedValidator getValidator(String url);
+
+    void putValidator(FeedValidator validator);
+
+    /**
+     * @return true if posts of the feed are stored
+     */
+    boolean hasPosts(String url);
+
+    /**
+     * @return the stored source of the feed, or null if it isn't stored
+     */
+    Source getSource(String url);
+
+    /**
+     * @return the latest stored posts of the feed, newest first
+     */
+    List<Post> getPosts(String url);
+}
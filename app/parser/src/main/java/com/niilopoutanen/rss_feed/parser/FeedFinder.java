@@ -1,16 +1,86 @@
 package com.niilopoutanen.rss_feed.parser;
 
+import com.niilopoutanen.rss_feed.rss.DiscoveryEntry;
+
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Element;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Request;
+import okhttp3.Response;
 
+/**
+ * Finds the feed of a website.
+ * The page itself is checked first, then the feeds it declares, then common feed paths are probed in parallel.
+ * Only the start of each response is downloaded.
+ */
 public class FeedFinder {
+    private static final List<String> PATHS = Arrays.asList(
+              "/feed",
+              "/rss",
+              "/rss.xml",
+              "/atom.xml",
+              "/feed/rss",
+              "/feed.xml",
+              "/index.xml",
+              "/.rss",
+              "/atom",
+              "/blog",
+              "/rss/rss.xml",
+              "/rss/feed",
+              "/rss/news.xml",
+              "/rss/uutiset.xml",
+              "/rss/uutiset",
+              "/feed/home",
+              "/feed/rss.xml",
+              "/feed/news",
+              "/news/rss.xml"
+    );
+    private static final int PARALLEL_PROBES = 4;
+    private static final long PROBE_TIMEOUT = 2_000;
+    /**
+     * Enough to see the root element of a feed
+     */
+    private static final int FEED_PROBE_BYTES = 4 * 1024;
+    /**
+     * Enough to see the head of most pages
+     */
+    private static final int PAGE_PROBE_BYTES = 64 * 1024;
+
+    private static final String KEY_PREFIX = "feed:";
+    private static DiscoveryCache cache;
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(PARALLEL_PROBES, PARALLEL_PROBES,
+              30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new FetchScheduler.FetchThreadFactory("feed-probe"));
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
     private URL url;
     private URL result;
+    private Type type;
+
+    /**
+     * Remembers found feeds, and urls without one, so that they can be resolved without network
+     */
+    public static void setCache(DiscoveryCache discoveryCache){
+        cache = discoveryCache;
+    }
+
     public static boolean isValidFeed(String url){
         if(url == null || url.isEmpty()){
             return false;
@@ -29,83 +99,285 @@ public class FeedFinder {
 
         return true;
     }
+
     public URL find(String urlStr) throws RSSException {
         this.url = WebUtils.formatUrl(urlStr);
+        if(this.url == null) return null;
 
+        String key = KEY_PREFIX + url;
+        if(restore(key)){
+            return result;
+        }
+
+        RSSException error = null;
+        boolean reachable = true;
         try{
-            if(this.url != null && WebUtils.rssExists(this.url)){
-                this.result = this.url;
+            if(lookup()){
+                store(key);
                 return result;
             }
         }
-        catch (IOException ignored) {}
+        catch (RSSException r){
+            error = r;
+        }
+        catch (IOException e) {
+            reachable = false;
+        }
 
+        fallback();
+        // A site that couldn't be reached may just be offline, only remember answers
+        if(result != null || reachable){
+            store(key);
+        }
+        if(result == null && error != null){
+            throw error;
+        }
+        return result;
+    }
 
-        lookup();
+    /**
+     * Uses the remembered answer for the url, if there is one
+     * @return true if the cache had a fresh answer, found or not
+     */
+    boolean restore(URL url){
+        this.url = url;
+        return restore(KEY_PREFIX + url);
+    }
 
+    /**
+     * Continues the search from an already downloaded page that turned out not to be a feed
+     */
+    URL findFrom(URL url, Document page){
+        this.url = url;
+        if(!findDeclared(page)){
+            fallback();
+        }
+        store(KEY_PREFIX + url);
         return result;
     }
 
+    /**
+     * Remembers that the url is a feed itself
+     */
+    void remember(URL url, Type type){
+        this.url = url;
+        setResult(url, type);
+        store(KEY_PREFIX + url);
+    }
+
+    /**
+     * @return true if the cache had a fresh answer for the key, found or not
+     */
+    private boolean restore(String key){
+        if(cache == null) return false;
+        DiscoveryEntry entry = cache.get(key);
+        if(entry == null || !entry.isFresh()) return false;
+        if(entry.url == null) return true;
+        if(entry.type == null) return false;
+
+        try{
+            setResult(new URL(entry.url), Type.valueOf(entry.type));
+            return true;
+        }
+        catch (MalformedURLException | IllegalArgumentException e){
+            return false;
+        }
+    }
+
+    private void store(String key){
+        if(cache == null) return;
+        DiscoveryEntry entry = new DiscoveryEntry(key);
+        if(result != null){
+            entry.url = result.toString();
+            entry.type = type.name();
+        }
+        entry.updated = System.currentTimeMillis();
+        cache.put(entry);
+    }
+
     public URL getResult(){
         return result;
     }
-    private void lookup() throws RSSException{
-        try{
-            Document document = WebUtils.connect(url);
-            Elements links = document.select("link[type=application/rss+xml]");
-            if(links.size() > 0){
-                result = new URL(links.get(0).attr("href"));
-            }
-            else{
-                fallback();
-            }
+
+    /**
+     * @return type of the found feed, or null if none was found
+     */
+    public Type getType(){
+        return type;
+    }
+
+    /**
+     * Checks whether the url is a feed itself, and if not, looks for the feeds the page declares.
+     */
+    private boolean lookup() throws IOException, RSSException {
+        Probe probe = probe(url, PAGE_PROBE_BYTES, null);
+        if(probe.type != null){
+            setResult(url, probe.type);
+            return true;
         }
-        catch (IOException e) {
-            fallback();
+
+        return findDeclared(Jsoup.parse(probe.content, url.toString()));
+    }
+
+    /**
+     * Declared RSS feeds are preferred over Atom ones
+     */
+    private boolean findDeclared(Document page){
+        for(Type candidate : Type.values()){
+            Element link = page.selectFirst("link[rel=alternate][type=" + candidate.mimeType + "][href]");
+            if(link == null) continue;
+            try{
+                setResult(new URL(link.absUrl("href")), candidate);
+                return true;
+            }
+            catch (MalformedURLException ignored){}
         }
+        return false;
     }
 
+    /**
+     * Probes the common feed paths a few at a time and stops at the first one that is a feed.
+     * Paths earlier in the list start first, but the first feed to respond is used.
+     */
     private void fallback(){
-        List<String> urlPaths = Arrays.asList(
-                  "",
-                  "/feed",
-                  "/rss",
-                  "/.rss",
-                  "/blog",
-                  "/atom",
-
-
-                  "/rss/uutiset.xml",
-                  "/rss/uutiset",
-                  "/rss/news.xml",
-                  "/rss.xml",
-                  "/rss/rss.xml",
-                  "/rss/feed",
-
-                  "/atom.xml",
-
-                  "/feed/home",
-                  "/feed/rss",
-                  "/feed/rss.xml",
-                  "/feed/news",
-
-                  "/news/rss.xml"
-        );
-
-        for (String path : urlPaths) {
-            try {
-                String urlStr = url + path;
-                URL url = new URL(urlStr);
-                Document document = WebUtils.connect(url);
-                boolean urlExists = document.hasText();
-                boolean feedExists = WebUtils.isRss(document) || WebUtils.isAtom(document);
-                if (feedExists && urlExists) {
-                    this.result = url;
+        ExecutorCompletionService<Probe> completion = new ExecutorCompletionService<>(executor);
+        List<Call> calls = new ArrayList<>();
+        List<Future<Probe>> tasks = new ArrayList<>();
+
+        for(String path : PATHS){
+            tasks.add(completion.submit(() -> {
+                URL candidate = new URL(url + path);
+                Probe probe = probe(candidate, FEED_PROBE_BYTES, calls);
+                probe.url = candidate;
+                return probe;
+            }));
+        }
+
+        long deadline = System.currentTimeMillis() + PROBE_TIMEOUT;
+        try {
+            for(int i = 0; i < tasks.size(); i++){
+                Future<Probe> done = completion.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if(done == null) break;
+                try{
+                    Probe probe = done.get();
+                    if(probe.type != null){
+                        setResult(probe.url, probe.type);
+                        break;
+                    }
                 }
+                catch (Exception ignored){
+                    // Not a feed, wait for the next one
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for(Future<Probe> task : tasks){
+                task.cancel(true);
+            }
+            synchronized (calls){
+                for(Call call : calls){
+                    call.cancel();
+                }
+            }
+        }
+    }
+
+    private void setResult(URL url, Type type){
+        this.result = url;
+        this.type = type;
+    }
+
+    /**
+     * Downloads at most the first bytes of the url and checks whether it's a feed
+     * @param calls if not null, the call is added to it so it can be cancelled
+     */
+    private static Probe probe(URL url, int bytes, List<Call> calls) throws IOException, RSSException {
+        Request request = HttpClient.request(url)
+                  .header("Range", "bytes=0-" + (bytes - 1))
+                  .build();
+        Call call = HttpClient.newCall(request);
+        if(calls != null){
+            synchronized (calls){
+                calls.add(call);
+            }
+            // Probing was stopped before the call could be added
+            if(Thread.currentThread().isInterrupted()){
+                call.cancel();
+            }
+        }
+
+        try(Response response = call.execute()){
+            if(!response.isSuccessful()){
+                throw new RSSException(response.code(), response.message());
             }
-            catch (Exception ignored) {
-                // Ignore exceptions and try the next URL
+
+            // Servers that ignore the range send everything, only the start is read
+            InputStream stream = response.body().byteStream();
+            byte[] buffer = new byte[bytes];
+            int length = 0;
+            int read;
+            while(length < bytes && (read = stream.read(buffer, length, bytes - length)) != -1){
+                length += read;
             }
+
+            String charset = ResponseStream.parseCharset(response.header("Content-Type"));
+            String content = new String(buffer, 0, length, WebUtils.detectCharset(buffer, charset));
+            return new Probe(content, sniff(content));
+        }
+    }
+
+    /**
+     * @return type of the feed based on its root element, or null if it is not a feed
+     */
+    static Type sniff(String content){
+        int i = 0;
+        int length = content.length();
+        while((i = content.indexOf('<', i)) != -1 && i + 1 < length){
+            char next = content.charAt(i + 1);
+            if(content.startsWith("<!--", i)){
+                int end = content.indexOf("-->", i);
+                if(end == -1) return null;
+                i = end + 3;
+            }
+            else if(next == '?' || next == '!'){
+                int end = content.indexOf('>', i);
+                if(end == -1) return null;
+                i = end + 1;
+            }
+            else{
+                int end = i + 1;
+                while(end < length && !Character.isWhitespace(content.charAt(end)) && content.charAt(end) != '>' && content.charAt(end) != '/'){
+                    end++;
+                }
+                String root = content.substring(i + 1, end);
+                if(root.equals("rss") || root.equals("rdf:RDF")) return Type.RSS;
+                if(root.equals("feed")) return Type.ATOM;
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static class Probe {
+        private final String content;
+        private final Type type;
+        private URL url;
+
+        Probe(String content, Type type){
+            this.content = content;
+            this.type = type;
+        }
+    }
+
+    public enum Type {
+        RSS("application/rss+xml"),
+        ATOM("application/atom+xml");
+
+        public final String mimeType;
+
+        Type(String mimeType){
+            this.mimeType = mimeType;
         }
     }
 }
@@ -0,0 +1,22 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.Post;
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import java.util.List;
+
+/**
+ * Receives feeds one source at a time while they are loaded
+ */
+public interface FeedListener {
+    /**
+     * Called from a fetch thread as soon as a single source has been parsed
+     * @param posts null if the source failed or was skipped
+     */
+    void onLoaded(Source source, List<Post> posts);
+
+    /**
+     * Called once every source has either loaded, failed or timed out
+     */
+    void onComplete();
+}
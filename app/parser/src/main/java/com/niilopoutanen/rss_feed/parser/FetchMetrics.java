@@ -0,0 +1,53 @@
+package com.niilopoutanen.rss_feed.parser;
+
+/**
+ * Timings of a single feed fetch, in milliseconds.
+ * A phase that did not happen is -1, for example DNS and connect when a pooled connection was reused.
+ */
+public class FetchMetrics {
+    public enum Outcome {FETCHED, NOT_MODIFIED, SKIPPED, FAILED}
+
+    public final String url;
+    /**
+     * Time the fetch started
+     */
+    public final long started;
+    private final long startNanos;
+
+    public long dns = -1;
+    public long connect = -1;
+    public long tls = -1;
+    /**
+     * From the start of the call until the response headers arrived
+     */
+    public long firstByte = -1;
+    /**
+     * From the response headers until the body was read
+     */
+    public long download = -1;
+    /**
+     * Time in the parser. Feeds are parsed while they download, so this overlaps with download.
+     */
+    public long parse = -1;
+    public long total = -1;
+    public long bytes;
+    public int items;
+    public int status;
+    public Outcome outcome;
+
+    public FetchMetrics(String url) {
+        this.url = url;
+        this.started = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    void finish(Outcome outcome, int items) {
+        this.outcome = outcome;
+        this.items = items;
+        this.total = since(startNanos);
+    }
+
+    static long since(long nanos) {
+        return (System.nanoTime() - nanos) / 1_000_000;
+    }
+}
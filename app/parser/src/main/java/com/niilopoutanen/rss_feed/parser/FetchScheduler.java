@@ -0,0 +1,232 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import okhttp3.Call;
+
+/**
+ * App wide scheduler for feed fetches.
+ * Limits how many fetches run at once in total and per host, and cancels every fetch that runs past its own deadline.
+ * Cancelling a fetch also cancels the HTTP calls it made, so that its thread and host slot are freed right away.
+ */
+public class FetchScheduler {
+    public static final int DEFAULT_MAX_CONCURRENT = 8;
+    public static final int DEFAULT_MAX_PER_HOST = 2;
+    public static final long DEFAULT_DEADLINE = 20_000;
+
+    private static volatile FetchScheduler instance;
+    private static final ThreadLocal<FetchTask<?>> current = new ThreadLocal<>();
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService watchdog;
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+    private int maxPerHost = DEFAULT_MAX_PER_HOST;
+    private volatile long deadline = DEFAULT_DEADLINE;
+
+    public static FetchScheduler getInstance() {
+        if (instance == null) {
+            synchronized (FetchScheduler.class) {
+                if (instance == null) {
+                    instance = new FetchScheduler();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private FetchScheduler() {
+        executor = new ThreadPoolExecutor(DEFAULT_MAX_CONCURRENT, DEFAULT_MAX_CONCURRENT,
+                30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), new FetchThreadFactory("fetch"));
+        executor.allowCoreThreadTimeOut(true);
+        watchdog = Executors.newSingleThreadScheduledExecutor(new FetchThreadFactory("fetch-watchdog"));
+    }
+
+    /**
+     * @param maxConcurrent how many fetches can run at once
+     * @param maxPerHost how many of those can go to the same host
+     */
+    public synchronized void setLimits(int maxConcurrent, int maxPerHost) {
+        if (maxConcurrent < 1 || maxPerHost < 1) {
+            throw new IllegalArgumentException("Limits must be at least 1");
+        }
+        if (maxConcurrent > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(maxConcurrent);
+            executor.setCorePoolSize(maxConcurrent);
+        }
+        else {
+            executor.setCorePoolSize(maxConcurrent);
+            executor.setMaximumPoolSize(maxConcurrent);
+        }
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * Time a single fetch is allowed to run before it is cancelled
+     */
+    public void setDeadline(long deadline, TimeUnit unit) {
+        this.deadline = unit.toMillis(deadline);
+    }
+
+    public <T> Future<T> submit(String url, Callable<T> task) {
+        return submit(url, task, null);
+    }
+
+    /**
+     * @param onDone called with the finished task once it completes, fails or is cancelled
+     */
+    public <T> Future<T> submit(String url, Callable<T> task, Consumer<Future<T>> onDone) {
+        FetchTask<T> fetchTask = new FetchTask<>(getHost(url), task, onDone);
+        enqueue(fetchTask);
+        return fetchTask;
+    }
+
+    private synchronized void enqueue(FetchTask<?> task) {
+        HostQueue queue = hosts.get(task.host);
+        if (queue == null) {
+            queue = new HostQueue();
+            hosts.put(task.host, queue);
+        }
+
+        if (queue.active < maxPerHost) {
+            queue.active++;
+            executor.execute(task);
+        }
+        else {
+            queue.pending.add(task);
+        }
+    }
+
+    private synchronized void release(FetchTask<?> task) {
+        HostQueue queue = hosts.get(task.host);
+        if (queue == null) return;
+
+        FetchTask<?> next = queue.pending.poll();
+        if (next != null) {
+            executor.execute(next);
+            return;
+        }
+
+        queue.active--;
+        if (queue.active <= 0) {
+            hosts.remove(task.host);
+        }
+    }
+
+    /**
+     * Ties the call to the fetch running on the current thread, if there is one.
+     * Interrupting the thread doesn't stop a blocking read, cancelling the call does.
+     */
+    static void track(Call call) {
+        FetchTask<?> task = current.get();
+        if (task != null) {
+            task.track(call);
+        }
+    }
+
+    private static String getHost(String url) {
+        try {
+            return new URL(url).getHost().toLowerCase(Locale.ROOT);
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private class FetchTask<T> extends FutureTask<T> {
+        private final String host;
+        private final Consumer<Future<T>> onDone;
+        private final List<Call> calls = new ArrayList<>();
+
+        FetchTask(String host, Callable<T> callable, Consumer<Future<T>> onDone) {
+            super(callable);
+            this.host = host;
+            this.onDone = onDone;
+        }
+
+        @Override
+        protected void done() {
+            if (onDone != null) {
+                onDone.accept(this);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                synchronized (calls) {
+                    for (Call call : calls) {
+                        call.cancel();
+                    }
+                    calls.clear();
+                }
+            }
+            return cancelled;
+        }
+
+        private void track(Call call) {
+            synchronized (calls) {
+                if (isCancelled()) {
+                    call.cancel();
+                }
+                else {
+                    calls.add(call);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            ScheduledFuture<?> timeout = watchdog.schedule(() -> cancel(true), deadline, TimeUnit.MILLISECONDS);
+            current.set(this);
+            try {
+                super.run();
+            } finally {
+                current.remove();
+                timeout.cancel(false);
+                synchronized (calls) {
+                    calls.clear();
+                }
+                release(this);
+            }
+        }
+    }
+
+    private static class HostQueue {
+        private int active;
+        private final ArrayDeque<FetchTask<?>> pending = new ArrayDeque<>();
+    }
+
+    static class FetchThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String name;
+
+        FetchThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
+
+/**
+ * Storage for the fetch results of feeds. Called from background threads.
+ */
+public interface HealthStore {
+    /**
+     * @return the health, or null if the feed has never failed
+     */
+    FeedHealth get(String url);
+
+    void put(FeedHealth health);
+}
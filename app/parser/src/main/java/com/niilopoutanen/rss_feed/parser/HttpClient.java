@@ -0,0 +1,97 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * App wide HTTP transport. Connections, TLS sessions and DNS lookups are shared by every request,
+ * HTTP/2 is negotiated where the server supports it and gzip responses are decoded transparently.
+ */
+public class HttpClient {
+    private static final long DNS_TTL = TimeUnit.MINUTES.toMillis(5);
+    private static volatile OkHttpClient client;
+
+    private HttpClient() {}
+
+    public static OkHttpClient get() {
+        if (client == null) {
+            synchronized (HttpClient.class) {
+                if (client == null) {
+                    client = new OkHttpClient.Builder()
+                            .connectTimeout(15, TimeUnit.SECONDS)
+                            .readTimeout(15, TimeUnit.SECONDS)
+                            .followRedirects(true)
+                            .followSslRedirects(true)
+                            .connectionPool(new ConnectionPool(FetchScheduler.DEFAULT_MAX_CONCURRENT, 5, TimeUnit.MINUTES))
+                            .dns(new CachingDns())
+                            .eventListenerFactory(MetricsListener.FACTORY)
+                            .build();
+                }
+            }
+        }
+        return client;
+    }
+
+    public static Request.Builder request(URL url) {
+        return new Request.Builder().url(url);
+    }
+
+    /**
+     * @return a call that is cancelled together with the fetch running on the current thread
+     */
+    public static Call newCall(Request request) {
+        Call call = get().newCall(request);
+        FetchScheduler.track(call);
+        return call;
+    }
+
+    public static Response execute(Request request) throws IOException {
+        return newCall(request).execute();
+    }
+
+    /**
+     * Keeps resolved addresses for a few minutes so that feeds on the same host don't each wait for a lookup
+     */
+    private static class CachingDns implements Dns {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        @NonNull
+        @Override
+        public List<InetAddress> lookup(@NonNull String hostname) throws UnknownHostException {
+            long now = System.currentTimeMillis();
+            Entry entry = entries.get(hostname);
+            if (entry != null && entry.expires > now) {
+                return entry.addresses;
+            }
+
+            List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+            entries.put(hostname, new Entry(addresses, now + DNS_TTL));
+            return addresses;
+        }
+    }
+
+    private static class Entry {
+        private final List<InetAddress> addresses;
+        private final long expires;
+
+        Entry(List<InetAddress> addresses, long expires) {
+            this.addresses = addresses;
+            this.expires = expires;
+        }
+    }
+}
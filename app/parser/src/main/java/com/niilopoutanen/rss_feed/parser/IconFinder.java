@@ -1,13 +1,25 @@
 package com.niilopoutanen.rss_feed.parser;
 
+import com.niilopoutanen.rss_feed.rss.DiscoveryEntry;
+
 import org.jsoup.nodes.Attributes;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import java.io.IOException;
 import java.net.URL;
 
 public class IconFinder {
+    private static final String KEY_PREFIX = "icon:";
+    private static DiscoveryCache cache;
+
+    /**
+     * Remembers the icon of each site, and sites without one
+     */
+    public static void setCache(DiscoveryCache discoveryCache){
+        cache = discoveryCache;
+    }
 
     public static String get(String urlStr, String[] existingURLs){
         try{
@@ -34,7 +46,41 @@ public class IconFinder {
 
     public static String load(URL url, String[] existingURLs){
         URL homePage = getHomePage(url);
+        // Extra candidates can change the answer, so only plain lookups are cached
+        try{
+            if(cache == null || existingURLs != null){
+                return find(homePage, existingURLs);
+            }
+        }
+        catch (IOException e){
+            return null;
+        }
+
+        String key = KEY_PREFIX + homePage;
+        DiscoveryEntry entry = cache.get(key);
+        if(entry != null && entry.isFresh()){
+            return entry.url;
+        }
+
+        String icon;
+        try{
+            icon = find(homePage, null);
+        }
+        catch (IOException e){
+            // Unreachable is not the same as having no icon
+            return null;
+        }
+        entry = new DiscoveryEntry(key);
+        entry.url = icon;
+        entry.updated = System.currentTimeMillis();
+        cache.put(entry);
+        return icon;
+    }
 
+    /**
+     * @throws IOException if the homepage could not be reached
+     */
+    private static String find(URL homePage, String[] existingURLs) throws IOException {
         // create an HTTP connection to the website's homepage
         try{
             Document doc = WebUtils.connect(homePage);
@@ -63,6 +109,9 @@ public class IconFinder {
 
             return iconUrl;
         }
+        catch (IOException e) {
+            throw e;
+        }
         catch (Exception e) {
             return null;
         }
@@ -0,0 +1,85 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import androidx.annotation.NonNull;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Response;
+
+/**
+ * Fills in the network phases of the FetchMetrics attached to a request as its tag.
+ * Requests without metrics get no listener.
+ */
+class MetricsListener extends EventListener {
+    static final EventListener.Factory FACTORY = call -> {
+        FetchMetrics metrics = call.request().tag(FetchMetrics.class);
+        return metrics != null ? new MetricsListener(metrics) : EventListener.NONE;
+    };
+
+    private final FetchMetrics metrics;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long headersEnd;
+
+    private MetricsListener(FetchMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void callStart(@NonNull Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(@NonNull Call call, @NonNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NonNull Call call, @NonNull String domainName, @NonNull List<InetAddress> addresses) {
+        metrics.dns = FetchMetrics.since(dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NonNull Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NonNull Call call, Handshake handshake) {
+        metrics.tls = FetchMetrics.since(secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NonNull Call call, @NonNull InetSocketAddress address, @NonNull Proxy proxy, Protocol protocol) {
+        metrics.connect = FetchMetrics.since(connectStart);
+    }
+
+    @Override
+    public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+        headersEnd = System.nanoTime();
+        // Redirects report every hop, the first byte of the final response is what counts
+        metrics.firstByte = FetchMetrics.since(callStart);
+        metrics.status = response.code();
+    }
+
+    @Override
+    public void responseBodyEnd(@NonNull Call call, long byteCount) {
+        metrics.bytes += byteCount;
+        metrics.download = FetchMetrics.since(headersEnd);
+    }
+}
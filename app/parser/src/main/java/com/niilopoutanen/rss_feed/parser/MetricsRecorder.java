@@ -0,0 +1,41 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the metrics of the latest fetches in a fixed size ring buffer, the oldest are overwritten
+ */
+public class MetricsRecorder {
+    public static final int CAPACITY = 512;
+
+    private static final FetchMetrics[] buffer = new FetchMetrics[CAPACITY];
+    private static int next;
+    private static int size;
+
+    static synchronized void record(FetchMetrics metrics) {
+        buffer[next] = metrics;
+        next = (next + 1) % CAPACITY;
+        if (size < CAPACITY) size++;
+    }
+
+    /**
+     * @return the recorded fetches, oldest first
+     */
+    public static synchronized List<FetchMetrics> snapshot() {
+        List<FetchMetrics> metrics = new ArrayList<>(size);
+        int start = (next - size + CAPACITY) % CAPACITY;
+        for (int i = 0; i < size; i++) {
+            metrics.add(buffer[(start + i) % CAPACITY]);
+        }
+        return metrics;
+    }
+
+    public static synchronized void clear() {
+        for (int i = 0; i < CAPACITY; i++) {
+            buffer[i] = null;
+        }
+        next = 0;
+        size = 0;
+    }
+}
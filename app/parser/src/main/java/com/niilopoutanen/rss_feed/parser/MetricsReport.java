@@ -0,0 +1,159 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summary of recorded fetches, overall and per source
+ */
+public class MetricsReport {
+    private static final int SLOWEST_COUNT = 10;
+    private static final int PHASE_DNS = 0;
+    private static final int PHASE_CONNECT = 1;
+    private static final int PHASE_TLS = 2;
+    private static final int PHASE_FIRST_BYTE = 3;
+    private static final int PHASE_PARSE = 4;
+
+    private final List<FetchMetrics> metrics;
+    private final Map<String, SourceStats> sources = new LinkedHashMap<>();
+    private final SourceStats overall = new SourceStats("all");
+
+    public MetricsReport(List<FetchMetrics> metrics) {
+        this.metrics = metrics;
+        for (FetchMetrics fetch : metrics) {
+            overall.add(fetch);
+            SourceStats stats = sources.get(fetch.url);
+            if (stats == null) {
+                stats = new SourceStats(fetch.url);
+                sources.put(fetch.url, stats);
+            }
+            stats.add(fetch);
+        }
+    }
+
+    public SourceStats getOverall() {
+        return overall;
+    }
+
+    /**
+     * @return the sources ordered by their 90th percentile latency, slowest first
+     */
+    public List<SourceStats> getSlowest(int count) {
+        List<SourceStats> slowest = new ArrayList<>(sources.values());
+        Collections.sort(slowest, (a, b) -> Long.compare(b.getPercentile(90), a.getPercentile(90)));
+        return slowest.subList(0, Math.min(count, slowest.size()));
+    }
+
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.ROOT, "Fetches: %d, failed %d, skipped %d%n",
+                overall.count, overall.failed, overall.skipped));
+        text.append(String.format(Locale.ROOT, "Cache hits: %d%%%n", Math.round(overall.getHitRatio() * 100)));
+        text.append(String.format(Locale.ROOT, "Downloaded: %d KB%n", overall.bytes / 1024));
+        text.append(String.format(Locale.ROOT, "Latency p50/p90/p99: %d/%d/%d ms%n",
+                overall.getPercentile(50), overall.getPercentile(90), overall.getPercentile(99)));
+        text.append(String.format(Locale.ROOT, "Average dns %d, connect %d, tls %d, first byte %d, parse %d ms%n",
+                average(PHASE_DNS), average(PHASE_CONNECT), average(PHASE_TLS), average(PHASE_FIRST_BYTE), average(PHASE_PARSE)));
+
+        text.append("\nSlowest feeds (p90):\n");
+        for (SourceStats stats : getSlowest(SLOWEST_COUNT)) {
+            text.append(String.format(Locale.ROOT, "%s%n  p50 %d, p90 %d ms, %d KB, %d fetches, hits %d%%%n",
+                    stats.url, stats.getPercentile(50), stats.getPercentile(90), stats.bytes / 1024,
+                    stats.count, Math.round(stats.getHitRatio() * 100)));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes every recorded fetch as a CSV row
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("started,url,outcome,status,dns,connect,tls,first_byte,download,parse,total,bytes,items\n");
+        for (FetchMetrics fetch : metrics) {
+            writer.write(String.format(Locale.ROOT, "%d,\"%s\",%s,%d,%d,%d,%d,%d,%d,%d,%d,%d,%d\n",
+                    fetch.started, fetch.url.replace("\"", "\"\""), fetch.outcome, fetch.status,
+                    fetch.dns, fetch.connect, fetch.tls, fetch.firstByte, fetch.download, fetch.parse,
+                    fetch.total, fetch.bytes, fetch.items));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Average of the phase over the fetches where it happened
+     */
+    private long average(int phase) {
+        long sum = 0;
+        int count = 0;
+        for (FetchMetrics fetch : metrics) {
+            long value;
+            switch (phase) {
+                case PHASE_DNS: value = fetch.dns; break;
+                case PHASE_CONNECT: value = fetch.connect; break;
+                case PHASE_TLS: value = fetch.tls; break;
+                case PHASE_FIRST_BYTE: value = fetch.firstByte; break;
+                default: value = fetch.parse; break;
+            }
+            if (value < 0) continue;
+            sum += value;
+            count++;
+        }
+        return count > 0 ? sum / count : 0;
+    }
+
+    public static class SourceStats {
+        public final String url;
+        private final List<Long> latencies = new ArrayList<>();
+        private boolean sorted;
+        public int count;
+        public int failed;
+        public int skipped;
+        public int fetched;
+        public int notModified;
+        public long bytes;
+
+        SourceStats(String url) {
+            this.url = url;
+        }
+
+        void add(FetchMetrics fetch) {
+            count++;
+            bytes += fetch.bytes;
+            if (fetch.outcome == FetchMetrics.Outcome.SKIPPED) {
+                skipped++;
+                return;
+            }
+            if (fetch.outcome == FetchMetrics.Outcome.FAILED) failed++;
+            else if (fetch.outcome == FetchMetrics.Outcome.NOT_MODIFIED) notModified++;
+            else fetched++;
+            latencies.add(fetch.total);
+            sorted = false;
+        }
+
+        /**
+         * Share of completed fetches that were answered with 304 Not Modified
+         */
+        public double getHitRatio() {
+            int completed = fetched + notModified;
+            return completed > 0 ? (double) notModified / completed : 0;
+        }
+
+        /**
+         * Nearest rank percentile of the total fetch time, skipped fetches excluded
+         */
+        public long getPercentile(int percentile) {
+            if (latencies.isEmpty()) return 0;
+            if (!sorted) {
+                Collections.sort(latencies);
+                sorted = true;
+            }
+            int rank = (int) Math.ceil(percentile / 100.0 * latencies.size());
+            return latencies.get(Math.max(0, rank - 1));
+        }
+    }
+}
@@ -1,39 +1,70 @@
 package com.niilopoutanen.rss_feed.parser;
 
-import static java.lang.Math.min;
-
 import android.util.Log;
 
 import com.niilopoutanen.rss_feed.parser.parsers.AtomParser;
 import com.niilopoutanen.rss_feed.parser.parsers.RssParser;
+import com.niilopoutanen.rss_feed.parser.parsers.StreamParser;
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
+import com.niilopoutanen.rss_feed.rss.FeedValidator;
 import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
 
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class Parser {
+    private static FeedCache cache;
+    private static HealthStore healthStore;
     public Source source;
+    /**
+     * How often the feed may be fetched, filled in by load and parse
+     */
+    public UpdateHints hints = new UpdateHints();
     public List<Post> posts = new ArrayList<>();
+    private final Engine engine;
+    private DateParser dateParser = DateParser.getShared();
+    private RSSException error;
+    private boolean skipped;
+    private long blockedUntil;
+    private boolean notModified;
+    private FetchMetrics metrics;
 
     public Parser() {
+        this(Engine.STREAM);
+    }
+
+    public Parser(Engine engine) {
+        this.engine = engine;
+    }
 
+    /**
+     * Enables conditional fetches. Unchanged feeds are restored from the stored posts instead of downloaded again.
+     */
+    public static void setCache(FeedCache feedCache) {
+        cache = feedCache;
+    }
+
+    /**
+     * Enables backoff for failing feeds. Feeds that keep failing or are rate limited are skipped without a request.
+     */
+    public static void setHealthStore(HealthStore store) {
+        healthStore = store;
     }
 
     public static boolean isValid(Source source) {
@@ -58,82 +89,257 @@ public class Parser {
     public void load(String url) {
         if (url == null || url.isEmpty()) return;
 
-        Document document = WebUtils.connect(url);
-        parse(document);
-        if (source != null) {
-            source.url = url;
+        long now = System.currentTimeMillis();
+        metrics = new FetchMetrics(url);
+        FeedHealth health = healthStore != null ? healthStore.get(url) : null;
+        if (health != null && health.isSkipped(now)) {
+            skipped = true;
+            blockedUntil = health.blockedUntil;
+            error = new RSSException(health.lastStatus, "Skipped after failures", health.retryAfter);
+            if (cache != null) restore(url);
+            record(FetchMetrics.Outcome.SKIPPED);
+            return;
         }
+
+        dateParser = DateParser.forSource(url);
+        if (engine == Engine.DOM || !loadStream(url)) {
+            long start = System.nanoTime();
+            Document document = WebUtils.connect(url);
+            parse(document);
+            metrics.parse = FetchMetrics.since(start);
+        }
+        if (source == null && error == null) {
+            error = new RSSException(RSSException.ERROR_FORMAT, "Not a feed");
+        }
+        else if (source != null) {
+            error = null;
+        }
+        onLoaded(url);
+        updateHealth(url, health, now);
+
+        if (error != null) record(FetchMetrics.Outcome.FAILED);
+        else if (notModified) record(FetchMetrics.Outcome.NOT_MODIFIED);
+        else record(FetchMetrics.Outcome.FETCHED);
     }
 
-    public static List<Post> loadMultiple(List<Source> sources) {
-        List<Post> posts = Collections.synchronizedList(new ArrayList<>());
+    private void record(FetchMetrics.Outcome outcome) {
+        metrics.finish(outcome, posts.size());
+        MetricsRecorder.record(metrics);
+    }
 
-        final int THREADS_WIDTH = 20; // do 20 sources per thread
+    /**
+     * @return why the last load failed or was skipped, or null if it succeeded
+     */
+    public RSSException getError() {
+        return error;
+    }
 
-        List<Source> sourceStream = sources.stream().filter(source -> source != null && source.visible).collect(Collectors.toList());
-        ExecutorService es = Executors.newCachedThreadPool();
+    /**
+     * @return true if the last load made no request because the feed is backing off
+     */
+    public boolean isSkipped() {
+        return skipped;
+    }
 
-        for (int i = 0; i < sourceStream.size(); i += THREADS_WIDTH) {
-            int finalI = i;
-            es.submit(Executors.callable(() -> {
-                for (int j = finalI; j < min(finalI + THREADS_WIDTH, sourceStream.size()); j++) {
-                    Source source = sourceStream.get(j);
-                    Parser parser = new Parser();
-                    parser.load(source.url);
+    /**
+     * @return time the feed is skipped until after the last load, or 0 if it is not
+     */
+    public long getBlockedUntil() {
+        return blockedUntil;
+    }
 
-                    posts.addAll(parser.posts);
-                }
+    private void updateHealth(String url, FeedHealth health, long now) {
+        if (healthStore == null) return;
+        if (error == null) {
+            // Healthy feeds are not stored
+            if (health == null || health.isHealthy()) return;
+            health.onSuccess(HttpURLConnection.HTTP_OK, now);
+        }
+        else {
+            if (health == null) health = new FeedHealth(url);
+            health.onFailure(error.getErrorType(), error.getRetryAfter(), now);
+        }
+        blockedUntil = health.blockedUntil;
+        healthStore.put(health);
+    }
 
-            }));
+    /**
+     * Parses a feed whose body has already been downloaded
+     */
+    void load(String url, byte[] body, String charset) {
+        dateParser = DateParser.forSource(url);
+        boolean parsed = false;
+        if (engine == Engine.STREAM) {
+            try {
+                parse(new ByteArrayInputStream(body), charset);
+                parsed = true;
+            } catch (RSSException | IOException ignored) {
+                // Retried with the DOM engine
+            }
         }
+        if (!parsed) {
+            String content = new String(body, WebUtils.detectCharset(body, charset));
+            parse(Jsoup.parse(content, url, org.jsoup.parser.Parser.xmlParser()));
+        }
+        onLoaded(url);
+    }
 
+    private void onLoaded(String url) {
+        if (source != null) {
+            source.url = url;
+        }
+    }
 
-        try {
-            if(!es.awaitTermination(30, TimeUnit.SECONDS)){
-                Log.println(Log.DEBUG,"postloader","Posts loaded: " + posts.size());
-                es.shutdownNow();
-                Log.println(Log.DEBUG,"postloader","Shutting down threads");
+    /**
+     * @return false if the feed could not be read by the pull parser and should be retried with the DOM engine
+     */
+    private boolean loadStream(String url) {
+        FeedValidator validator = getValidator(url);
+        try (ResponseStream stream = WebUtils.openStream(new URL(url), validator, metrics)) {
+            long start = System.nanoTime();
+            parse(stream, stream.getCharset());
+            metrics.parse = FetchMetrics.since(start);
+            hints.setExpires(stream.getExpires());
+            if (cache != null && source != null && !validator.isEmpty()) {
+                cache.putValidator(validator);
             }
-        } catch (InterruptedException e) {
-            Log.println(Log.ERROR,"d",e.getMessage());
+        } catch (RSSException r) {
+            if (r.getErrorType() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                notModified = true;
+                restore(url);
+                return true;
+            }
+            error = r;
+            return r.getErrorType() != RSSException.ERROR_FORMAT;
+        } catch (IOException e) {
+            error = new RSSException(e.getMessage());
+            Log.println(Log.ERROR, "postloader", String.valueOf(e.getMessage()));
+        }
+        return true;
+    }
+
+    /**
+     * Validators are only sent when posts of the feed are stored, so a 304 can always be restored
+     */
+    private static FeedValidator getValidator(String url) {
+        FeedValidator validator = null;
+        if (cache != null && cache.hasPosts(url)) {
+            validator = cache.getValidator(url);
+        }
+        return validator != null ? validator : new FeedValidator(url);
+    }
+
+    private void restore(String url) {
+        Source cachedSource = cache.getSource(url);
+        if (cachedSource != null) {
+            source = cachedSource;
+            posts = new ArrayList<>(cache.getPosts(url));
+        }
+    }
+
+    public static List<Post> loadMultiple(List<Source> sources) {
+        FetchScheduler scheduler = FetchScheduler.getInstance();
+        List<Future<List<Post>>> tasks = new ArrayList<>();
+
+        for (Source source : sources) {
+            if (source == null || !source.visible) continue;
+            tasks.add(scheduler.submit(source.url, () -> loadSource(source)));
         }
 
-        Collections.shuffle(posts);
+        List<List<Post>> runs = new ArrayList<>();
+        for (Future<List<Post>> task : tasks) {
+            try {
+                List<Post> run = task.get();
+                if (run != null) runs.add(run);
+            } catch (CancellationException c) {
+                Log.println(Log.DEBUG, "postloader", "Source skipped, deadline exceeded");
+            } catch (ExecutionException e) {
+                Log.println(Log.ERROR, "postloader", String.valueOf(e.getCause()));
+            } catch (InterruptedException e) {
+                tasks.forEach(remaining -> remaining.cancel(true));
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<Post> posts = PostMerge.merge(runs);
+        Log.println(Log.DEBUG, "postloader", "Posts loaded: " + posts.size());
         return posts;
     }
 
+    /**
+     * Loads the sources in the background and hands each source's posts to the listener as soon as they are parsed
+     */
+    public static void loadMultiple(List<Source> sources, FeedListener listener) {
+        List<Source> visible = new ArrayList<>();
+        for (Source source : sources) {
+            if (source != null && source.visible) visible.add(source);
+        }
+        if (visible.isEmpty()) {
+            listener.onComplete();
+            return;
+        }
+
+        FetchScheduler scheduler = FetchScheduler.getInstance();
+        AtomicInteger remaining = new AtomicInteger(visible.size());
+        for (Source source : visible) {
+            scheduler.submit(source.url, () -> loadSource(source), task -> {
+                try {
+                    if (!task.isCancelled()) {
+                        listener.onLoaded(source, task.get());
+                    }
+                } catch (Exception e) {
+                    Log.println(Log.ERROR, "postloader", String.valueOf(e.getMessage()));
+                } finally {
+                    if (remaining.decrementAndGet() == 0) {
+                        listener.onComplete();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the posts of the source, or null if it failed or was skipped
+     */
+    private static List<Post> loadSource(Source source) {
+        Parser parser = new Parser();
+        parser.load(source.url);
+        return parser.getError() == null ? parser.posts : null;
+    }
+
     public void parse(Document document) {
         if (document == null) return;
 
         if (WebUtils.isRss(document)) {
             RssParser rssParser = new RssParser();
+            rssParser.setDateParser(dateParser);
             rssParser.parse(document);
             source = rssParser.getSource();
             posts = rssParser.getPosts();
+            hints = rssParser.getHints();
         } else if (WebUtils.isAtom(document)) {
             AtomParser atomParser = new AtomParser();
+            atomParser.setDateParser(dateParser);
             atomParser.parse(document);
             source = atomParser.getSource();
             posts = atomParser.getPosts();
+            hints = atomParser.getHints();
         }
     }
 
-    public static Date parseDate(String dateString) {
-        List<DateTimeFormatter> formats = new ArrayList<>();
-        formats.add(DateTimeFormatter.ofPattern("E, d MMM yyyy HH:mm:ss Z", Locale.ENGLISH));
-        formats.add(DateTimeFormatter.ofPattern("E, d MMM yyyy HH:mm:ss zzz", Locale.ENGLISH));
-        formats.add(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX"));
-        formats.add(DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss Z", Locale.ENGLISH));
-
-        for (DateTimeFormatter formatter : formats) {
-            try {
-                ZonedDateTime zonedDateTime = ZonedDateTime.parse(dateString, formatter);
-                return Date.from(zonedDateTime.toInstant());
-            } catch (DateTimeParseException ignored) {
-            }
+    public void parse(InputStream stream, String charset) throws IOException, RSSException {
+        StreamParser streamParser = new StreamParser();
+        streamParser.setDateParser(dateParser);
+        streamParser.parse(stream, charset);
+        if (streamParser.isFeed()) {
+            source = streamParser.getSource();
+            posts = streamParser.getPosts();
+            hints = streamParser.getHints();
         }
+    }
 
-        return null;
+    public static Date parseDate(String dateString) {
+        return DateParser.getShared().parse(dateString);
     }
 
     public static String parsePattern(String raw, String attribute) {
@@ -156,4 +362,9 @@ public class Parser {
         }
     }
 
+    /**
+     * STREAM reads the feed in a single pass with a pull parser,
+     * DOM builds a Jsoup document first and is used as a fallback for feeds the pull parser can't read.
+     */
+    public enum Engine {DOM, STREAM}
 }
@@ -13,14 +13,10 @@ import com.niilopoutanen.rss_feed.rss.Source;
 import org.jsoup.nodes.Document;
 
 import java.net.URL;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
@@ -106,21 +102,7 @@ public class ParserGen2 {
     }
 
     public static Date parseDate(String dateString){
-        List<DateTimeFormatter> formats = new ArrayList<>();
-        formats.add(DateTimeFormatter.ofPattern("E, d MMM yyyy HH:mm:ss Z", Locale.ENGLISH));
-        formats.add(DateTimeFormatter.ofPattern("E, d MMM yyyy HH:mm:ss zzz", Locale.ENGLISH));
-        formats.add(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssXXX"));
-        formats.add(DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss Z", Locale.ENGLISH));
-
-        for(DateTimeFormatter formatter : formats){
-            try{
-                ZonedDateTime zonedDateTime = ZonedDateTime.parse(dateString, formatter);
-                return Date.from(zonedDateTime.toInstant());
-            }
-            catch (DateTimeParseException ignored){}
-        }
-
-        return null;
+        return DateParser.getShared().parse(dateString);
     }
     public static String parsePattern(String raw, String attribute){
         String regexPattern = attribute + "=\"(.*?)\"";
@@ -0,0 +1,127 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Merges the posts of several sources into one list, newest first.
+ * Each source's posts are usually already in order, so they are only sorted when they are not,
+ * and then merged through a heap of the sources in O(n log k).
+ * Posts with the same time keep the order of their sources, so the result is always the same for the same input.
+ */
+public class PostMerge {
+    private final List<List<Post>> runs = new ArrayList<>();
+    private final List<long[]> keys = new ArrayList<>();
+    private int[] heap;
+    private int[] positions;
+    private int size;
+
+    private PostMerge(List<List<Post>> sources) {
+        for (List<Post> posts : sources) {
+            if (posts == null || posts.isEmpty()) continue;
+            List<Post> run = isSorted(posts) ? posts : sort(posts);
+            long[] runKeys = new long[run.size()];
+            for (int i = 0; i < runKeys.length; i++) {
+                runKeys[i] = run.get(i).getSortKey();
+            }
+            runs.add(run);
+            keys.add(runKeys);
+        }
+    }
+
+    /**
+     * @param sources posts of each source, in any order
+     * @return every post, newest first. Iterate it backwards for oldest first.
+     */
+    public static List<Post> merge(List<List<Post>> sources) {
+        return new PostMerge(sources).merge();
+    }
+
+    private List<Post> merge() {
+        int total = 0;
+        for (List<Post> run : runs) {
+            total += run.size();
+        }
+        List<Post> merged = new ArrayList<>(total);
+        if (runs.size() == 1) {
+            merged.addAll(runs.get(0));
+            return merged;
+        }
+
+        heap = new int[runs.size()];
+        positions = new int[runs.size()];
+        for (int run = 0; run < runs.size(); run++) {
+            heap[size] = run;
+            siftUp(size++);
+        }
+
+        while (size > 0) {
+            int run = heap[0];
+            merged.add(runs.get(run).get(positions[run]++));
+            if (positions[run] == keys.get(run).length) {
+                heap[0] = heap[--size];
+            }
+            siftDown(0);
+        }
+        return merged;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(heap[index], heap[parent])) return;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int first = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+            if (left < size && before(heap[left], heap[first])) first = left;
+            if (right < size && before(heap[right], heap[first])) first = right;
+            if (first == index) return;
+            swap(index, first);
+            index = first;
+        }
+    }
+
+    /**
+     * @return true if the next post of run a comes before the next post of run b
+     */
+    private boolean before(int a, int b) {
+        long keyA = keys.get(a)[positions[a]];
+        long keyB = keys.get(b)[positions[b]];
+        if (keyA != keyB) return keyA > keyB;
+        return a < b;
+    }
+
+    private void swap(int i, int j) {
+        int run = heap[i];
+        heap[i] = heap[j];
+        heap[j] = run;
+    }
+
+    private static boolean isSorted(List<Post> posts) {
+        long previous = Long.MAX_VALUE;
+        for (Post post : posts) {
+            long key = post.getSortKey();
+            if (key > previous) return false;
+            previous = key;
+        }
+        return true;
+    }
+
+    /**
+     * Feeds listing their oldest posts first are reversed in linear time by the sort
+     */
+    private static List<Post> sort(List<Post> posts) {
+        List<Post> sorted = new ArrayList<>(posts);
+        sorted.sort((a, b) -> Long.compare(b.getSortKey(), a.getSortKey()));
+        return sorted;
+    }
+}
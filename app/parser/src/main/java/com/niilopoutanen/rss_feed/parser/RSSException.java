@@ -1,12 +1,25 @@
 package com.niilopoutanen.rss_feed.parser;
 
 public class RSSException extends Exception{
+    /**
+     * The response could not be read as a feed
+     */
+    public static final int ERROR_FORMAT = -2;
     private final int errorType;
+    private long retryAfter;
     public RSSException(int errorType, String message){
         super(message);
         this.errorType = errorType;
     }
 
+    /**
+     * @param retryAfter time the server asked to wait until before the next request, or 0
+     */
+    public RSSException(int errorType, String message, long retryAfter){
+        this(errorType, message);
+        this.retryAfter = retryAfter;
+    }
+
     public RSSException(String message){
         super(message);
         this.errorType = -1;
@@ -16,4 +29,8 @@ public class RSSException extends Exception{
     public int getErrorType() {
         return errorType;
     }
+
+    public long getRetryAfter() {
+        return retryAfter;
+    }
 }
@@ -0,0 +1,85 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.CacheControl;
+import okhttp3.Response;
+
+/**
+ * Response body of a request. Closing it also releases the connection back to the pool.
+ */
+public class ResponseStream extends FilterInputStream {
+    private final Response response;
+    private final String charset;
+
+    ResponseStream(Response response) {
+        super(response.body().byteStream());
+        this.response = response;
+        this.charset = parseCharset(response.header("Content-Type"));
+    }
+
+    /**
+     * @return charset declared in the Content-Type header, or null if the body has to be sniffed
+     */
+    public String getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return time the response stays fresh until according to Cache-Control or Expires, or -1
+     */
+    public long getExpires() {
+        return getExpires(response, System.currentTimeMillis());
+    }
+
+    static long getExpires(Response response, long now) {
+        CacheControl cacheControl = response.cacheControl();
+        if (cacheControl.noStore() || cacheControl.noCache()) return -1;
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            return now + TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds());
+        }
+
+        Date expires = response.headers().getDate("Expires");
+        if (expires == null) return -1;
+        // Measured against the server's clock when it sent one
+        Date date = response.headers().getDate("Date");
+        long sent = date != null ? date.getTime() : now;
+        return now + expires.getTime() - sent;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            response.close();
+        }
+    }
+
+    static String parseCharset(String contentType) {
+        if (contentType == null) return null;
+        int index = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+        if (index == -1) return null;
+
+        String charset = contentType.substring(index + "charset=".length());
+        int end = charset.indexOf(';');
+        if (end != -1) charset = charset.substring(0, end);
+        return supported(charset.trim().replace("\"", "").replace("'", ""));
+    }
+
+    /**
+     * @return the charset name if it can be used, otherwise null
+     */
+    static String supported(String charset) {
+        try {
+            return Charset.isSupported(charset) ? charset : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
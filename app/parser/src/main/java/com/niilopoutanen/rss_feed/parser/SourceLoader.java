@@ -0,0 +1,90 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns user input into a source.
+ * The input is downloaded once and, if it is a feed, validated and parsed from that same download.
+ * The site icon is looked up at the same time.
+ */
+public class SourceLoader {
+    private static final long ICON_TIMEOUT = 5_000;
+
+    /**
+     * @return the source with its feed url, or null if no feed was found
+     */
+    public static Source load(String input) throws RSSException {
+        URL url = WebUtils.formatUrl(input);
+        if (url == null) return null;
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> icon = executor.submit(() -> IconFinder.get(url));
+        try {
+            Parser parser = parse(url);
+            if (parser == null || parser.source == null) return null;
+
+            Source source = parser.source;
+            if (source.image == null || source.image.isEmpty()) {
+                source.image = getIcon(icon);
+            }
+            return source;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Parser parse(URL url) throws RSSException {
+        FeedFinder finder = new FeedFinder();
+        Parser parser = new Parser();
+
+        // Known feed, or known to have none
+        if (finder.restore(url)) {
+            if (finder.getResult() == null) return null;
+            parser.load(finder.getResult().toString());
+            return parser;
+        }
+
+        byte[] body;
+        String charset;
+        try (ResponseStream stream = WebUtils.openStream(url)) {
+            body = WebUtils.readAll(stream);
+            charset = stream.getCharset();
+        } catch (IOException e) {
+            throw new RSSException(e.getMessage());
+        }
+
+        String content = new String(body, WebUtils.detectCharset(body, charset));
+        FeedFinder.Type type = FeedFinder.sniff(content);
+        if (type != null) {
+            parser.load(url.toString(), body, charset);
+            if (parser.source != null) {
+                finder.remember(url, type);
+            }
+            return parser;
+        }
+
+        Document page = Jsoup.parse(content, url.toString());
+        URL feed = finder.findFrom(url, page);
+        if (feed == null) return null;
+        parser.load(feed.toString());
+        return parser;
+    }
+
+    private static String getIcon(Future<String> icon) {
+        try {
+            return icon.get(ICON_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
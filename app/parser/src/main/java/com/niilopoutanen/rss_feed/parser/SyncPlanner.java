@@ -0,0 +1,77 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a feed should be fetched again.
+ * The publishing interval is learned from the post dates, then stretched to whatever the feed and server hints allow.
+ */
+public class SyncPlanner {
+    public static final long MIN_INTERVAL = TimeUnit.MINUTES.toMillis(30);
+    public static final long MAX_INTERVAL = TimeUnit.HOURS.toMillis(24);
+    /**
+     * Hints can ask for longer intervals than learning would choose, but not longer than this
+     */
+    public static final long MAX_HINTED_INTERVAL = TimeUnit.DAYS.toMillis(7);
+    public static final long DEFAULT_INTERVAL = TimeUnit.HOURS.toMillis(2);
+    /**
+     * Used when the feed could not be read
+     */
+    public static final long RETRY_INTERVAL = TimeUnit.HOURS.toMillis(1);
+    private static final int SAMPLE_SIZE = 20;
+
+    /**
+     * @param hints may be null
+     * @return the time the feed should be fetched next
+     */
+    public static long nextCheck(long now, List<Post> posts, UpdateHints hints) {
+        long interval = learnInterval(now, posts);
+        if (hints != null) {
+            interval = Math.max(interval, Math.min(hints.getMinInterval(now), MAX_HINTED_INTERVAL));
+        }
+
+        long next = now + interval;
+        if (hints != null) {
+            // Move to the next hour until the feed allows reading, at most a week ahead
+            long hour = TimeUnit.HOURS.toMillis(1);
+            for (int i = 0; i < 24 * 7 && hints.isSkipped(next); i++) {
+                next = (next / hour + 1) * hour;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Median gap between the latest posts.
+     * Feeds that have gone quiet for longer than that are checked less often the longer they stay quiet.
+     */
+    static long learnInterval(long now, List<Post> posts) {
+        List<Long> dates = new ArrayList<>();
+        if (posts != null) {
+            for (Post post : posts) {
+                Date date = post.pubDate;
+                if (date != null && date.getTime() <= now) dates.add(date.getTime());
+            }
+        }
+        if (dates.size() < 2) return DEFAULT_INTERVAL;
+
+        Collections.sort(dates, Collections.reverseOrder());
+        int count = Math.min(dates.size(), SAMPLE_SIZE + 1);
+        List<Long> gaps = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            gaps.add(dates.get(i - 1) - dates.get(i));
+        }
+        Collections.sort(gaps);
+        long interval = gaps.get(gaps.size() / 2);
+
+        long quiet = now - dates.get(0);
+        interval = Math.max(interval, quiet / 2);
+        return Math.max(MIN_INTERVAL, Math.min(interval, MAX_INTERVAL));
+    }
+}
@@ -0,0 +1,126 @@
+package com.niilopoutanen.rss_feed.parser;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What a feed and its server say about how often it should be fetched.
+ * Read from RSS ttl, skipHours and skipDays, the syndication module and the HTTP caching headers.
+ */
+public class UpdateHints {
+    private static final String[] DAYS = {"sunday", "monday", "tuesday", "wednesday", "thursday", "friday", "saturday"};
+    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+
+    /**
+     * Minutes the feed can be cached, or -1
+     */
+    private int ttl = -1;
+    /**
+     * Bit per GMT hour 0-23
+     */
+    private int skipHours;
+    /**
+     * Bit per GMT day, Sunday first
+     */
+    private int skipDays;
+    private String updatePeriod;
+    private int updateFrequency = 1;
+    /**
+     * Time the response stays fresh until according to the server, or -1
+     */
+    private long expires = -1;
+
+    public void setTtl(String minutes) {
+        try {
+            ttl = Integer.parseInt(minutes.trim());
+        } catch (NumberFormatException | NullPointerException ignored) {}
+    }
+
+    public void addSkipHour(String hour) {
+        try {
+            int value = Integer.parseInt(hour.trim());
+            // Some feeds count from 1 to 24
+            if (value == 24) value = 0;
+            if (value >= 0 && value < 24) skipHours |= 1 << value;
+        } catch (NumberFormatException | NullPointerException ignored) {}
+    }
+
+    public void addSkipDay(String day) {
+        if (day == null) return;
+        String name = day.trim().toLowerCase(Locale.ROOT);
+        for (int i = 0; i < DAYS.length; i++) {
+            if (DAYS[i].equals(name)) skipDays |= 1 << i;
+        }
+    }
+
+    /**
+     * @param period hourly, daily, weekly, monthly or yearly
+     */
+    public void setUpdatePeriod(String period) {
+        if (period != null) updatePeriod = period.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param frequency how many times the feed is updated per period
+     */
+    public void setUpdateFrequency(String frequency) {
+        try {
+            int value = Integer.parseInt(frequency.trim());
+            if (value > 0) updateFrequency = value;
+        } catch (NumberFormatException | NullPointerException ignored) {}
+    }
+
+    public void setExpires(long expires) {
+        this.expires = expires;
+    }
+
+    /**
+     * @return the shortest time until the feed should be fetched again according to the hints, 0 if there are none
+     */
+    public long getMinInterval(long now) {
+        long interval = 0;
+        if (ttl > 0) {
+            interval = TimeUnit.MINUTES.toMillis(ttl);
+        }
+        long period = getUpdatePeriod();
+        if (period > 0) {
+            interval = Math.max(interval, period / updateFrequency);
+        }
+        if (expires > now) {
+            interval = Math.max(interval, expires - now);
+        }
+        return interval;
+    }
+
+    /**
+     * @return true if the feed asks not to be read at the time
+     */
+    public boolean isSkipped(long time) {
+        if (skipHours == 0 && skipDays == 0) return false;
+        Calendar calendar = Calendar.getInstance(GMT);
+        calendar.setTimeInMillis(time);
+        int hour = calendar.get(Calendar.HOUR_OF_DAY);
+        int day = calendar.get(Calendar.DAY_OF_WEEK) - Calendar.SUNDAY;
+        return (skipHours & (1 << hour)) != 0 || (skipDays & (1 << day)) != 0;
+    }
+
+    private long getUpdatePeriod() {
+        if (updatePeriod == null) return -1;
+        switch (updatePeriod) {
+            case "hourly":
+                return TimeUnit.HOURS.toMillis(1);
+            case "daily":
+                return TimeUnit.DAYS.toMillis(1);
+            case "weekly":
+                return TimeUnit.DAYS.toMillis(7);
+            case "monthly":
+                return TimeUnit.DAYS.toMillis(30);
+            case "yearly":
+                return TimeUnit.DAYS.toMillis(365);
+            default:
+                return -1;
+        }
+    }
+}
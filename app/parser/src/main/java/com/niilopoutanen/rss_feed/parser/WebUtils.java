@@ -2,99 +2,182 @@ package com.niilopoutanen.rss_feed.parser;
 
 import static java.lang.Math.min;
 
+import com.niilopoutanen.rss_feed.rss.FeedValidator;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.Arrays;
-import java.util.List;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import okhttp3.Request;
+import okhttp3.Response;
+
 public class WebUtils {
+    private static final Pattern PROLOG_ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z0-9._\\-]+)[\"']");
+
     public static Document connect(URL url) throws IOException, RSSException {
-        String result = fetch(url);
-        // Return the fetched data as a JSoup document
-        return Jsoup.parse(result, "", org.jsoup.parser.Parser.xmlParser());
+        // Jsoup reads the bytes itself and falls back to the BOM and XML prolog when the header has no charset
+        try (ResponseStream stream = openStream(url)) {
+            return Jsoup.parse(stream, stream.getCharset(), "", org.jsoup.parser.Parser.xmlParser());
+        }
+    }
+    /**
+     * Parses the page as HTML, with the url as the base for relative links
+     */
+    public static Document connectHtml(URL url) throws IOException, RSSException {
+        try (ResponseStream stream = openStream(url)) {
+            return Jsoup.parse(stream, stream.getCharset(), url.toString());
+        }
     }
     public static String connectRaw(URL url) throws IOException, RSSException {
-        return fetch(url);
+        try (ResponseStream stream = openStream(url)) {
+            byte[] bytes = readAll(stream);
+            return new String(bytes, detectCharset(bytes, stream.getCharset()));
+        }
+    }
+
+    static byte[] readAll(InputStream stream) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
     }
 
     public static Document connect(String urlStr) {
         try {
-            URL url = new URL(urlStr);
-            String result = fetch(url);
-            return Jsoup.parse(result, "", org.jsoup.parser.Parser.xmlParser());
+            return connect(new URL(urlStr));
         } catch (Exception e) {
             e.printStackTrace();
         }
         return null;
     }
 
-        private static String fetch(URL url) throws IOException, RSSException {
-            if (url == null) return "";
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        public static ResponseStream openStream(URL url) throws IOException, RSSException {
+            return openStream(url, null);
+        }
 
-            // Set request method
-            connection.setRequestMethod("GET");
-            connection.setInstanceFollowRedirects(true);
-            // Set connection timeout and read timeout
+        /**
+         * Opens the response body as a stream. Closing the stream also disconnects.
+         * @param validator if not null, makes the request conditional and is updated with the validators of the response.
+         *                  An unchanged feed throws RSSException with HTTP_NOT_MODIFIED.
+         */
+        public static ResponseStream openStream(URL url, FeedValidator validator) throws IOException, RSSException {
+            return openStream(url, validator, null);
+        }
 
-            connection.setConnectTimeout(15_000);
-            connection.setReadTimeout(15_000);
+        /**
+         * @param metrics if not null, the network phases of the request are recorded into it
+         */
+        public static ResponseStream openStream(URL url, FeedValidator validator, FetchMetrics metrics) throws IOException, RSSException {
+            return new ResponseStream(open(url, validator, metrics));
+        }
 
+        /**
+         * Charset of the header if there is one, otherwise the byte order mark, then the XML prolog, then UTF-8
+         */
+        static Charset detectCharset(byte[] bytes, String headerCharset) {
+            if (headerCharset != null) return Charset.forName(headerCharset);
 
-            // Follow HTTP 301 redirection
-            if (isRedirect(connection)) {
-                String newUrl = connection.getHeaderField("Location");
-                connection = (HttpURLConnection) new URL(newUrl).openConnection();
-                connection.setRequestMethod("GET");
-                connection.connect();
+            int length = bytes.length;
+            if (length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB && (bytes[2] & 0xFF) == 0xBF) {
+                return StandardCharsets.UTF_8;
+            }
+            if (length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+                return StandardCharsets.UTF_16BE;
+            }
+            if (length >= 2 && (bytes[0] & 0xFF) == 0xFF && (bytes[1] & 0xFF) == 0xFE) {
+                return StandardCharsets.UTF_16LE;
             }
 
-            // Get the input stream from the connection and parse it
-            InputStream inputStream = connection.getInputStream();
+            String prolog = new String(bytes, 0, min(length, 200), StandardCharsets.US_ASCII);
+            if (prolog.startsWith("<?xml")) {
+                Matcher matcher = PROLOG_ENCODING.matcher(prolog);
+                if (matcher.find() && ResponseStream.supported(matcher.group(1)) != null) {
+                    return Charset.forName(matcher.group(1));
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
 
-            // Read the input stream and convert it to a string
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            StringBuilder result = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                result.append(line);
+        private static Response open(URL url, FeedValidator validator, FetchMetrics metrics) throws IOException, RSSException {
+            Request.Builder request = HttpClient.request(url);
+            if (metrics != null) {
+                request.tag(FetchMetrics.class, metrics);
+            }
+            if (validator != null) {
+                if (validator.etag != null) {
+                    request.header("If-None-Match", validator.etag);
+                }
+                if (validator.lastModified != null) {
+                    request.header("If-Modified-Since", validator.lastModified);
+                }
             }
-            // Close the input stream and disconnect the connection
-            inputStream.close();
-            connection.disconnect();
 
-            return result.toString();
+            // Redirects are followed by the client
+            Response response = HttpClient.execute(request.build());
+            if (!response.isSuccessful()) {
+                response.close();
+                long retryAfter = parseRetryAfter(response.header("Retry-After"), response.headers().getDate("Retry-After"), System.currentTimeMillis());
+                throw new RSSException(response.code(), response.message(), retryAfter);
+            }
+
+            if (validator != null) {
+                validator.etag = response.header("ETag");
+                validator.lastModified = response.header("Last-Modified");
+            }
+            return response;
+        }
+
+        /**
+         * @param value the header, either seconds or an HTTP date
+         * @param date the header parsed as a date, or null
+         * @return the time to wait until, or 0 if there is no usable header
+         */
+        static long parseRetryAfter(String value, Date date, long now) {
+            if (value == null) return 0;
+            if (date != null) return Math.max(date.getTime(), 0);
+            try {
+                long seconds = Long.parseLong(value.trim());
+                return seconds > 0 ? now + TimeUnit.SECONDS.toMillis(seconds) : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
         }
 
         public static boolean rssExists(URL url) throws IOException {
-            HttpURLConnection.setFollowRedirects(false);
-            HttpURLConnection httpURLConnection = (HttpURLConnection) url.openConnection();
-            httpURLConnection.setInstanceFollowRedirects(true);
-            httpURLConnection.setRequestMethod("HEAD");
-            String contentType = httpURLConnection.getContentType();
-            if (contentType != null) {
-                boolean hasRssHeader = contentType.startsWith("application/rss+xml") || contentType.startsWith("application/xml");
-                if (hasRssHeader) {
-                    //if rss headers are detected
-                    return true;
+            try (Response response = HttpClient.execute(HttpClient.request(url).head().build())) {
+                String contentType = response.header("Content-Type");
+                if (response.isSuccessful() && contentType != null) {
+                    boolean hasRssHeader = contentType.startsWith("application/rss+xml") || contentType.startsWith("application/xml");
+                    if (hasRssHeader) {
+                        //if rss headers are detected
+                        return true;
+                    }
                 }
             }
 
-            Document document = Jsoup.connect(url.toString()).ignoreContentType(true).get();
+            Document document;
+            try {
+                document = connect(url);
+            } catch (RSSException e) {
+                return false;
+            }
             Element rootElement = document.select(":root").first();
             if (rootElement == null) {
                 return false;
@@ -104,42 +187,9 @@ public class WebUtils {
         }
 
         public static boolean urlExists(URL url) throws IOException {
-            HttpURLConnection.setFollowRedirects(false);
-            HttpURLConnection httpURLConnection = (HttpURLConnection) url.openConnection();
-            httpURLConnection.setInstanceFollowRedirects(true);
-            httpURLConnection.setRequestMethod("HEAD");
-            int responseCode = httpURLConnection.getResponseCode();
-            return !isErrorCode(responseCode);
-        }
-
-        public static URL findFeed(URL baseUrl) {
-            //Popular RSS url paths
-            List<String> urlPaths = Arrays.asList("", "/feed", "/rss", "/.rss", "/blog", "/atom",
-
-
-                    "/rss/uutiset.xml", "/rss/uutiset", "/rss/news.xml", "/rss.xml", "/rss/rss.xml", "/rss/feed",
-
-                    "/atom.xml",
-
-                    "/feed/home", "/feed/rss", "/feed/rss.xml", "/feed/news",
-
-                    "/news/rss.xml");
-
-            for (String path : urlPaths) {
-                try {
-                    String urlStr = baseUrl + path;
-                    URL url = new URL(urlStr);
-                    Document document = connect(url);
-                    boolean urlExists = document.hasText();
-                    boolean feedExists = isRss(document) || isAtom(document);
-                    if (feedExists && urlExists) {
-                        return url;
-                    }
-                } catch (Exception ignore) {
-                    // Ignore exceptions and try the next URL
-                }
+            try (Response response = HttpClient.execute(HttpClient.request(url).head().build())) {
+                return !isErrorCode(response.code());
             }
-            return null;
         }
 
         public static URL formatUrl(String url) {
@@ -176,19 +226,6 @@ public class WebUtils {
             }
         }
 
-        public static boolean isRedirect(HttpURLConnection connection) throws IOException, RSSException {
-            boolean redirect = false;
-            int status = connection.getResponseCode();
-            if (status != HttpURLConnection.HTTP_OK) {
-                if (status == HttpURLConnection.HTTP_MOVED_TEMP || status == HttpURLConnection.HTTP_MOVED_PERM || status == HttpURLConnection.HTTP_SEE_OTHER) {
-                    redirect = true;
-                } else {
-                    throw new RSSException(status, connection.getResponseMessage());
-                }
-            }
-            return redirect;
-        }
-
         public static boolean isErrorCode(String errorMessage) {
             if (errorMessage == null) {
                 return false;
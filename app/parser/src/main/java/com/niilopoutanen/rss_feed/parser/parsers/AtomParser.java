@@ -1,6 +1,5 @@
 package com.niilopoutanen.rss_feed.parser.parsers;
 
-import com.niilopoutanen.rss_feed.parser.Parser;
 import com.niilopoutanen.rss_feed.rss.Post;
 
 import org.jsoup.Jsoup;
@@ -8,7 +7,7 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
-public class AtomParser extends ParserBase {
+public class AtomParser extends DocumentParser {
 
     protected void parseSource(Document document){
         Element channel = document.selectFirst("feed");
@@ -21,7 +20,7 @@ public class AtomParser extends ParserBase {
             source.title = titleElement.text();
         }
 
-        Element link = channel.selectFirst("link");
+        Element link = findLink(channel);
         if(link != null){
             source.home = link.attr("href");
         }
@@ -50,7 +49,7 @@ public class AtomParser extends ParserBase {
                 post.title = titleElement.text();
             }
 
-            Element linkElement = itemElement.selectFirst("link");
+            Element linkElement = findLink(itemElement);
             if (linkElement != null) {
                 post.link = linkElement.attr("href");
             }
@@ -76,8 +75,11 @@ public class AtomParser extends ParserBase {
             }
 
             Element pubDate = itemElement.selectFirst("published");
+            if (pubDate == null) {
+                pubDate = itemElement.selectFirst("updated");
+            }
             if (pubDate != null) {
-                post.pubDate = Parser.parseDate(pubDate.text());
+                post.pubDate = dateParser.parse(pubDate.text());
             }
 
             Elements author = itemElement.select("author");
@@ -88,6 +90,8 @@ public class AtomParser extends ParserBase {
                 }
             }
 
+            post.image = findImage(itemElement);
+
             Elements categories = itemElement.select("category");
             if (!categories.isEmpty()) {
                 for (Element category : categories){
@@ -100,8 +104,16 @@ public class AtomParser extends ParserBase {
                 post.author = source.title;
             }
 
-            posts.add(post);
+            addPost(post);
         }
     }
 
+    /**
+     * @return the alternate link of the element, or its first link if none is marked as one
+     */
+    private static Element findLink(Element element){
+        Element link = element.selectFirst("> link[rel=alternate], > link:not([rel])");
+        return link != null ? link : element.selectFirst("> link");
+    }
+
 }
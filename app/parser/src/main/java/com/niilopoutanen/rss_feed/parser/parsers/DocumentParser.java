@@ -0,0 +1,62 @@
+package com.niilopoutanen.rss_feed.parser.parsers;
+
+import com.niilopoutanen.rss_feed.parser.Parser;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Base for parsers that work on a complete Jsoup document
+ */
+public abstract class DocumentParser extends ParserBase {
+
+    @Override
+    public void parse(InputStream stream, String charset) throws IOException {
+        parse(Jsoup.parse(stream, charset, "", org.jsoup.parser.Parser.xmlParser()));
+    }
+
+    public void parse(Document document){
+        parseSource(document);
+        parsePosts(document);
+    }
+
+    protected abstract void parseSource(Document document);
+    protected abstract void parsePosts(Document document);
+
+    /**
+     * @return image of the post in the same order of preference as StreamParser, or null if it has none
+     */
+    protected static String findImage(Element item) {
+        Element thumbnail = item.selectFirst("media|thumbnail");
+        if (thumbnail != null) {
+            String url = thumbnail.hasAttr("url") ? thumbnail.attr("url") : thumbnail.text();
+            if (!url.isEmpty()) return url;
+        }
+
+        String image = findHtmlImage(item.selectFirst("content|encoded"));
+        if (image == null) image = findUrl(item.selectFirst("enclosure"));
+        if (image == null) image = findUrl(item.selectFirst("media|content"));
+        if (image == null) image = findHtmlImage(item.selectFirst("description"));
+        return image;
+    }
+
+    private static String findUrl(Element element) {
+        if (element == null || element.attr("url").isEmpty()) return null;
+        return element.attr("url");
+    }
+
+    /**
+     * Looks for the first image in an element that holds escaped HTML
+     */
+    private static String findHtmlImage(Element element) {
+        if (element == null) return null;
+        String html = element.text();
+        if (!html.contains("<img")) return null;
+        String image = Parser.parsePattern(html, "src");
+        return image.isEmpty() ? null : image;
+    }
+}
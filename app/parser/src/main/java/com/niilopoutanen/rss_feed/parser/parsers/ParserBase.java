@@ -1,16 +1,23 @@
 package com.niilopoutanen.rss_feed.parser.parsers;
 
+import com.niilopoutanen.rss_feed.parser.DateParser;
+import com.niilopoutanen.rss_feed.parser.RSSException;
+import com.niilopoutanen.rss_feed.parser.UpdateHints;
 import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
 
-import org.jsoup.nodes.Document;
-
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 public abstract class ParserBase {
     protected final Source source = new Source();
     protected final List<Post> posts = new ArrayList<>();
+    protected final UpdateHints hints = new UpdateHints();
+    protected DateParser dateParser = DateParser.getShared();
+    private Consumer<Post> listener;
 
 
     public Source getSource(){
@@ -21,11 +28,30 @@ public abstract class ParserBase {
         return posts;
     }
 
-    public void parse(Document document){
-        parseSource(document);
-        parsePosts(document);
+    public UpdateHints getHints() {
+        return hints;
+    }
+
+    /**
+     * Called for every post as soon as it has been parsed
+     */
+    public void setListener(Consumer<Post> listener){
+        this.listener = listener;
+    }
+
+    public void setDateParser(DateParser dateParser){
+        this.dateParser = dateParser;
+    }
+
+    protected void addPost(Post post){
+        posts.add(post);
+        if(listener != null){
+            listener.accept(post);
+        }
     }
 
-    protected abstract void parseSource(Document document);
-    protected abstract void parsePosts(Document document);
+    /**
+     * @param charset charset of the stream, or null to detect it from the document
+     */
+    public abstract void parse(InputStream stream, String charset) throws IOException, RSSException;
 }
@@ -8,7 +8,7 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
-public class RssParser extends ParserBase {
+public class RssParser extends DocumentParser {
 
     protected void parseSource(Document document){
         Element channel = document.selectFirst("channel");
@@ -35,6 +35,30 @@ public class RssParser extends ParserBase {
         if (languageElement != null) {
             source.language = languageElement.text();
         }
+
+        parseHints(channel);
+    }
+
+    private void parseHints(Element channel){
+        Element ttlElement = channel.selectFirst("> ttl");
+        if (ttlElement != null) {
+            hints.setTtl(ttlElement.text());
+        }
+        for (Element hour : channel.select("> skipHours > hour")) {
+            hints.addSkipHour(hour.text());
+        }
+        for (Element day : channel.select("> skipDays > day")) {
+            hints.addSkipDay(day.text());
+        }
+
+        Element periodElement = channel.selectFirst("> sy|updatePeriod");
+        if (periodElement != null) {
+            hints.setUpdatePeriod(periodElement.text());
+        }
+        Element frequencyElement = channel.selectFirst("> sy|updateFrequency");
+        if (frequencyElement != null) {
+            hints.setUpdateFrequency(frequencyElement.text());
+        }
     }
     protected void parsePosts(Document document){
         Elements itemObjects = document.select("item");
@@ -67,18 +91,22 @@ public class RssParser extends ParserBase {
             }
 
             Element pubDateElement = itemElement.selectFirst("pubDate");
+            if (pubDateElement == null) {
+                // RSS 1.0
+                pubDateElement = itemElement.selectFirst("dc|date");
+            }
             if (pubDateElement != null) {
-                post.pubDate = Parser.parseDate(pubDateElement.text());
+                post.pubDate = dateParser.parse(pubDateElement.text());
             }
 
             Element summaryElement = itemElement.selectFirst("summary");
             if (summaryElement != null && post.description == null) {
-                post.description = summaryElement.text();
+                post.description = Jsoup.parse(summaryElement.text()).body().text();
             }
 
             Element contentElement = itemElement.selectFirst("content");
             if (contentElement != null && post.description == null) {
-                post.description = contentElement.text();
+                post.description = Jsoup.parse(contentElement.text()).body().text();
             }
 
             Element authorElement = itemElement.selectFirst("author");
@@ -96,36 +124,7 @@ public class RssParser extends ParserBase {
                 post.author = dcCreatorElement.text();
             }
 
-            Element mediaElement = itemElement.selectFirst("media|thumbnail");
-            if (mediaElement != null) {
-                post.image = mediaElement.text();
-            }
-
-            Element contentEncoded = itemElement.selectFirst("content|encoded");
-            if (contentEncoded != null && post.image == null) {
-                int startIndex = contentEncoded.toString().indexOf("<img");
-                if (startIndex != -1 && post.image == null) {
-                    post.image = Parser.parsePattern(contentEncoded.toString(), "src");
-                }
-            }
-
-            Element enclosure = itemElement.selectFirst("enclosure");
-            if (enclosure != null && !enclosure.attr("url").isEmpty() && post.image == null) {
-                post.image = enclosure.attr("url");
-            }
-
-            Element mediaImg = itemElement.selectFirst("media|content");
-            if(mediaImg != null && !mediaImg.attr("url").isEmpty() && post.image == null){
-                post.image = mediaImg.attr("url");
-            }
-
-
-            if (descElement != null && post.image == null) {
-                int startIndex = descElement.toString().indexOf("<img");
-                if (startIndex != -1 && post.image == null) {
-                    post.image = Parser.parsePattern(descElement.toString(), "src");
-                }
-            }
+            post.image = findImage(itemElement);
 
             Elements categories = itemElement.select("category");
             if(categories.size() > 0){
@@ -138,7 +137,7 @@ public class RssParser extends ParserBase {
                 post.author = source.title;
             }
 
-            posts.add(post);
+            addPost(post);
         }
     }
 }
@@ -0,0 +1,357 @@
+package com.niilopoutanen.rss_feed.parser.parsers;
+
+import com.niilopoutanen.rss_feed.parser.Parser;
+import com.niilopoutanen.rss_feed.parser.RSSException;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.jsoup.Jsoup;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Single pass pull parser for both RSS and Atom feeds.
+ * Reads straight from the stream without building a document, posts are emitted as soon as their closing tag is read.
+ */
+public class StreamParser extends ParserBase {
+    private static final String FEATURE_RELAXED = "http://xmlpull.org/v1/doc/features.html#relaxed";
+    private static XmlPullParserFactory factory;
+
+    private boolean atom;
+    private boolean feed;
+    private boolean alternateHome;
+
+    public boolean isFeed(){
+        return feed;
+    }
+
+    @Override
+    public void parse(InputStream stream, String charset) throws IOException, RSSException {
+        try {
+            XmlPullParser parser = newPullParser();
+            parser.setInput(stream, charset);
+            read(parser);
+        }
+        catch (XmlPullParserException e) {
+            throw new RSSException(RSSException.ERROR_FORMAT, e.getMessage());
+        }
+    }
+
+    private static synchronized XmlPullParser newPullParser() throws XmlPullParserException {
+        if(factory == null){
+            factory = XmlPullParserFactory.newInstance();
+            factory.setNamespaceAware(false);
+        }
+        XmlPullParser parser = factory.newPullParser();
+        try{
+            parser.setFeature(FEATURE_RELAXED, true);
+        }
+        catch (XmlPullParserException ignored) {}
+        return parser;
+    }
+
+    private void read(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int sourceDepth = -1;
+        int type;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type != XmlPullParser.START_TAG) continue;
+
+            String name = parser.getName();
+            int depth = parser.getDepth();
+            if (depth == 1) {
+                feed = name.equals("rss") || name.equals("rdf:RDF") || name.equals("feed");
+                atom = name.equals("feed");
+                if (!feed) return;
+                if (atom) sourceDepth = 2;
+            }
+            else if (name.equals("channel") && !atom) {
+                sourceDepth = depth + 1;
+            }
+            else if (name.equals("item") || name.equals("entry")) {
+                readPost(parser);
+            }
+            else if (depth == sourceDepth) {
+                readSource(parser, name);
+            }
+        }
+    }
+
+    private void readSource(XmlPullParser parser, String name) throws IOException, XmlPullParserException {
+        switch (name) {
+            case "title":
+                if (source.title == null) source.title = normalize(readText(parser));
+                break;
+            case "link":
+                if (atom) {
+                    boolean alternate = isAlternate(parser);
+                    if (source.home == null || (alternate && !alternateHome)) {
+                        source.home = parser.getAttributeValue(null, "href");
+                        alternateHome = alternate;
+                    }
+                }
+                else if (source.home == null) {
+                    source.home = normalize(readText(parser));
+                }
+                break;
+            case "description":
+                if (source.description == null) source.description = Parser.trim(normalize(readText(parser)), 100);
+                break;
+            case "language":
+                if (source.language == null) source.language = normalize(readText(parser));
+                break;
+            case "id":
+                if (atom && source.url == null) source.url = normalize(readText(parser));
+                break;
+            case "logo":
+                if (atom) source.image = normalize(readText(parser));
+                break;
+            case "icon":
+                if (atom && source.image == null) source.image = normalize(readText(parser));
+                break;
+            case "ttl":
+                hints.setTtl(readText(parser));
+                break;
+            case "skipHours":
+                readChildren(parser, "hour", hints::addSkipHour);
+                break;
+            case "skipDays":
+                readChildren(parser, "day", hints::addSkipDay);
+                break;
+            case "sy:updatePeriod":
+                hints.setUpdatePeriod(readText(parser));
+                break;
+            case "sy:updateFrequency":
+                hints.setUpdateFrequency(readText(parser));
+                break;
+        }
+    }
+
+    /**
+     * Reads the text of every child with the name and leaves the parser at the end tag of the current element
+     */
+    private static void readChildren(XmlPullParser parser, String name, Consumer<String> consumer) throws IOException, XmlPullParserException {
+        int depth = parser.getDepth();
+        int type;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type == XmlPullParser.END_TAG && parser.getDepth() == depth) break;
+            if (type == XmlPullParser.START_TAG && parser.getName().equals(name)) {
+                consumer.accept(readText(parser));
+            }
+        }
+    }
+
+    private void readPost(XmlPullParser parser) throws IOException, XmlPullParserException {
+        Post post = new Post();
+        int depth = parser.getDepth();
+
+        String link = null, guid = null, id = null;
+        boolean alternateLink = false;
+        String description = null, summary = null, content = null, contentEncoded = null;
+        String author = null, creator = null;
+        String thumbnail = null, enclosure = null, mediaContent = null;
+        String published = null, updated = null;
+
+        int type;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type == XmlPullParser.END_TAG && parser.getDepth() == depth) break;
+            if (type != XmlPullParser.START_TAG) continue;
+
+            switch (parser.getName()) {
+                case "title":
+                    if (post.title == null) post.title = normalize(readText(parser));
+                    break;
+                case "link":
+                    if (atom) {
+                        boolean alternate = isAlternate(parser);
+                        if (link == null || (alternate && !alternateLink)) {
+                            link = parser.getAttributeValue(null, "href");
+                            alternateLink = alternate;
+                        }
+                    }
+                    else if (link == null) {
+                        link = normalize(readText(parser));
+                    }
+                    break;
+                case "guid":
+                    if (guid == null) guid = normalize(readText(parser));
+                    break;
+                case "id":
+                    if (id == null) id = normalize(readText(parser));
+                    break;
+                case "description":
+                    if (description == null) description = readText(parser);
+                    break;
+                case "summary":
+                    if (summary == null) summary = readText(parser);
+                    break;
+                case "content":
+                    if (content == null) content = readText(parser);
+                    break;
+                case "content:encoded":
+                    if (contentEncoded == null) contentEncoded = readText(parser);
+                    break;
+                case "pubDate":
+                case "published":
+                case "dc:date":
+                    if (published == null) published = normalize(readText(parser));
+                    break;
+                case "updated":
+                    if (updated == null) updated = normalize(readText(parser));
+                    break;
+                case "author":
+                    if (author == null) author = atom ? readAuthor(parser) : normalize(readText(parser));
+                    break;
+                case "creator":
+                case "dc:creator":
+                    if (creator == null) creator = normalize(readText(parser));
+                    break;
+                case "media:thumbnail":
+                    if (thumbnail == null) {
+                        thumbnail = parser.getAttributeValue(null, "url");
+                        if (thumbnail == null) thumbnail = normalize(readText(parser));
+                    }
+                    break;
+                case "enclosure":
+                    if (enclosure == null) enclosure = parser.getAttributeValue(null, "url");
+                    break;
+                case "media:content":
+                    if (mediaContent == null) mediaContent = parser.getAttributeValue(null, "url");
+                    break;
+                case "category":
+                    if (atom) {
+                        post.addCategory(parser.getAttributeValue(null, "term"));
+                    }
+                    else {
+                        post.addCategory(normalize(readText(parser)));
+                    }
+                    break;
+            }
+        }
+
+        post.link = firstOf(link, guid, id);
+
+        if (description != null) {
+            post.description = stripHtml(description);
+        }
+        else if (summary != null) {
+            post.description = stripHtml(summary);
+        }
+        else if (content != null) {
+            post.description = stripHtml(content);
+        }
+
+        String date = firstOf(published, updated);
+        if (date != null) {
+            post.pubDate = dateParser.parse(date);
+        }
+        post.author = firstOf(author, creator, source.title);
+
+        post.image = firstOf(thumbnail, findImage(contentEncoded), enclosure, mediaContent, findImage(description));
+
+        addPost(post);
+    }
+
+    private static boolean isAlternate(XmlPullParser parser) {
+        String rel = parser.getAttributeValue(null, "rel");
+        return rel == null || rel.equals("alternate");
+    }
+
+    private static String readAuthor(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int depth = parser.getDepth();
+        String name = null;
+        int type;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type == XmlPullParser.END_TAG && parser.getDepth() == depth) break;
+            if (type == XmlPullParser.START_TAG && parser.getName().equals("name") && name == null) {
+                name = normalize(readText(parser));
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Reads all text inside the current element and leaves the parser at its end tag
+     */
+    private static String readText(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int depth = parser.getDepth();
+        String text = null;
+        StringBuilder builder = null;
+        int type;
+        while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type == XmlPullParser.END_TAG && parser.getDepth() == depth) break;
+            if (type != XmlPullParser.TEXT) continue;
+
+            if (text == null) {
+                text = parser.getText();
+            }
+            else {
+                if (builder == null) builder = new StringBuilder(text);
+                builder.append(parser.getText());
+            }
+        }
+        return builder != null ? builder.toString() : text;
+    }
+
+    private static String findImage(String html) {
+        if (html == null || !html.contains("<img")) return null;
+        String image = Parser.parsePattern(html, "src");
+        return image.isEmpty() ? null : image;
+    }
+
+    private static String stripHtml(String html) {
+        if (html.indexOf('<') == -1 && html.indexOf('&') == -1) {
+            return normalize(html);
+        }
+        return Jsoup.parse(html).body().text();
+    }
+
+    /**
+     * Trims and collapses whitespace the same way Jsoup's text() does
+     */
+    private static String normalize(String text) {
+        if (text == null) return null;
+        if (isNormal(text)) return text;
+
+        StringBuilder builder = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                space = builder.length() > 0;
+            }
+            else {
+                if (space) builder.append(' ');
+                builder.append(c);
+                space = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean isNormal(String text) {
+        int last = text.length() - 1;
+        boolean previous = false;
+        for (int i = 0; i <= last; i++) {
+            char c = text.charAt(i);
+            boolean whitespace = isWhitespace(c);
+            if (whitespace && (c != ' ' || previous || i == 0 || i == last)) return false;
+            previous = whitespace;
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f';
+    }
+
+    private static String firstOf(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isEmpty()) return value;
+        }
+        return null;
+    }
+}
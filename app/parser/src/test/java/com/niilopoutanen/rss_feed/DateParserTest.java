@@ -0,0 +1,130 @@
+package com.niilopoutanen.rss_feed;
+
+import com.niilopoutanen.rss_feed.parser.DateParser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+
+class DateParserTest {
+    @Test
+    void namedZones(){
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 8, 0, 0, 0, ZoneOffset.ofHours(-5)), "Wed, 02 Oct 2002 08:00:00 EST");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 8, 0, 0, 0, ZoneOffset.ofHours(-4)), "Wed, 02 Oct 2002 08:00:00 EDT");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 8, 0, 0, 0, ZoneOffset.ofHours(-7)), "Wed, 02 Oct 2002 08:00:00 PDT");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 8, 0, 0, 0, ZoneOffset.UTC), "Wed, 02 Oct 2002 08:00:00 UT");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 8, 0, 0, 0, ZoneOffset.UTC), "Wed, 02 Oct 2002 08:00:00 Z");
+        assertParsed(rfc1123("Wed, 2 Oct 2002 08:00:00 GMT"), "Wed, 02 Oct 2002 08:00:00 GMT");
+        assertParsed(ZonedDateTime.parse("2002-10-02T08:00:00Z"), "2002-10-02T08:00:00z");
+    }
+
+    @Test
+    void numericOffsets(){
+        assertParsed(rfc1123("Wed, 2 Oct 2002 13:00:00 +0200"), "Wed, 02 Oct 2002 13:00:00 +0200");
+        assertParsed(rfc1123("Wed, 2 Oct 2002 13:00:00 -0330"), "Wed, 02 Oct 2002 13:00:00 -0330");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 13, 0, 0, 0, ZoneOffset.ofHoursMinutes(5, 30)), "Wed, 02 Oct 2002 13:00:00 +05:30");
+        assertParsed(ZonedDateTime.parse("2002-10-02T13:00:00+02:00"), "2002-10-02T13:00:00+02:00");
+        assertParsed(ZonedDateTime.parse("2002-10-02T13:00:00-03:30"), "2002-10-02T13:00:00-03:30");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 13, 0, 0, 0, ZoneOffset.ofHoursMinutes(5, 30)), "2002-10-02T13:00:00+0530");
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 13, 0, 0, 0, ZoneOffset.ofHours(9)), "2002-10-02T13:00:00+09");
+    }
+
+    @Test
+    void isoWithoutZone(){
+        assertParsed(LocalDateTime.parse("2002-10-02T13:45:10").atZone(ZoneOffset.UTC), "2002-10-02T13:45:10");
+        assertParsed(LocalDateTime.parse("2002-10-02T13:45").atZone(ZoneOffset.UTC), "2002-10-02 13:45");
+        assertParsed(LocalDate.parse("2002-10-02").atStartOfDay(ZoneOffset.UTC), "2002-10-02");
+    }
+
+    @Test
+    void fractions(){
+        assertParsed(ZonedDateTime.parse("2002-10-02T13:00:00.5Z"), "2002-10-02T13:00:00.5Z");
+        assertParsed(ZonedDateTime.parse("2002-10-02T13:00:00.25+01:00"), "2002-10-02T13:00:00.25+01:00");
+        assertParsed(ZonedDateTime.parse("2002-10-02T13:00:00.123456Z"), "2002-10-02T13:00:00.123456Z");
+        assertParsed(ZonedDateTime.parse("2002-10-02T13:00:00.999999999-05:00"), "2002-10-02T13:00:00.999999999-05:00");
+        Assertions.assertNull(new DateParser().parse("2002-10-02T13:00:00.Z"));
+    }
+
+    @Test
+    void twoDigitYears(){
+        assertParsed(ZonedDateTime.of(2002, 10, 2, 8, 0, 0, 0, ZoneOffset.UTC), "Wed, 02 Oct 02 08:00:00 GMT");
+        assertParsed(ZonedDateTime.of(2049, 1, 15, 8, 0, 0, 0, ZoneOffset.UTC), "15 Jan 49 08:00:00 GMT");
+        assertParsed(ZonedDateTime.of(1950, 1, 15, 8, 0, 0, 0, ZoneOffset.UTC), "15 Jan 50 08:00:00 GMT");
+        assertParsed(ZonedDateTime.of(1997, 10, 2, 8, 0, 0, 0, ZoneOffset.UTC), "Thu, 02 Oct 97 08:00:00 GMT");
+    }
+
+    @Test
+    void leapDays(){
+        assertParsed(ZonedDateTime.parse("2024-02-29T12:00:00Z"), "2024-02-29T12:00:00Z");
+        assertParsed(rfc1123("Thu, 29 Feb 2024 12:00:00 GMT"), "Thu, 29 Feb 2024 12:00:00 GMT");
+        assertParsed(ZonedDateTime.parse("2000-02-29T12:00:00Z"), "2000-02-29T12:00:00Z");
+
+        DateParser parser = new DateParser();
+        Assertions.assertNull(parser.parse("2023-02-29T12:00:00Z"));
+        Assertions.assertNull(parser.parse("Wed, 29 Feb 2023 12:00:00 GMT"));
+        Assertions.assertNull(parser.parse("1900-02-29T12:00:00Z"));
+    }
+
+    @Test
+    void leapSeconds(){
+        // java.time has no leap seconds, the second is read as the one before it like ISO_INSTANT does
+        ZonedDateTime expected = DateTimeFormatter.ISO_INSTANT.parse("2016-12-31T23:59:60Z", java.time.Instant::from).atZone(ZoneOffset.UTC);
+        assertParsed(expected, "2016-12-31T23:59:60Z");
+        assertParsed(expected, "Sat, 31 Dec 2016 23:59:60 GMT");
+        Assertions.assertNull(new DateParser().parse("2016-12-31T23:59:61Z"));
+    }
+
+    @Test
+    void invalidDates(){
+        DateParser parser = new DateParser();
+        Assertions.assertNull(parser.parse("2002-13-02T13:00:00Z"));
+        Assertions.assertNull(parser.parse("2002-00-02T13:00:00Z"));
+        Assertions.assertNull(parser.parse("2002-04-31T13:00:00Z"));
+        Assertions.assertNull(parser.parse("2002-10-00T13:00:00Z"));
+        Assertions.assertNull(parser.parse("2002-10-02T24:00:00Z"));
+        Assertions.assertNull(parser.parse("Wed, 32 Oct 2002 08:00:00 GMT"));
+        Assertions.assertNull(parser.parse("Thu, 31 Apr 2003 08:00:00 GMT"));
+        Assertions.assertNull(parser.parse("Wed, 02 Foo 2002 08:00:00 GMT"));
+        Assertions.assertNull(parser.parse("Wed, 02 Oct 2002 08:00:00 XYZ"));
+        Assertions.assertNull(parser.parse(""));
+        Assertions.assertNull(parser.parse("yesterday"));
+        Assertions.assertNull(parser.parse(null));
+    }
+
+    @Test
+    void fallbackFormatters(){
+        DateTimeFormatter named = DateTimeFormatter.ofPattern("E, d MMM uuuu HH:mm:ss zzz", Locale.ENGLISH);
+        assertParsed(ZonedDateTime.parse("Tue, 3 Jun 2008 11:05:30 CET", named), "Tue, 3 Jun 2008 11:05:30 CET");
+        assertParsed(ZonedDateTime.of(2008, 6, 3, 11, 5, 30, 0, ZoneId.of("Europe/Helsinki")), "Tue, 3 Jun 2008 11:05:30 EEST");
+
+        // The day of the week is checked against the date
+        Assertions.assertNull(new DateParser().parse("Mon, 3 Jun 2008 11:05:30 CET"));
+    }
+
+    @Test
+    void remembersFormat(){
+        DateParser parser = new DateParser();
+        String[] dates = {"Tue, 3 Jun 2008 11:05:30 CET", "2002-10-02T13:00:00Z", "Tue, 3 Jun 2008 11:05:30 CET", "Wed, 02 Oct 2002 08:00:00 EST"};
+        for(String date : dates){
+            Assertions.assertEquals(new DateParser().parse(date), parser.parse(date), date);
+        }
+    }
+
+    private static ZonedDateTime rfc1123(String text){
+        return ZonedDateTime.parse(text, DateTimeFormatter.RFC_1123_DATE_TIME);
+    }
+
+    private static void assertParsed(ZonedDateTime expected, String text){
+        Date date = new DateParser().parse(text);
+        Assertions.assertNotNull(date, text);
+        Assertions.assertEquals(expected.toInstant().toEpochMilli(), date.getTime(), text);
+    }
+}
@@ -0,0 +1,127 @@
+package com.niilopoutanen.rss_feed;
+
+import com.niilopoutanen.rss_feed.parser.PostMerge;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+class PostMergeTest {
+    @Test
+    void interleavesSources(){
+        List<Post> a = Arrays.asList(post("a1", 90), post("a2", 50), post("a3", 10));
+        List<Post> b = Arrays.asList(post("b1", 80), post("b2", 60), post("b3", 20));
+        List<Post> c = Collections.singletonList(post("c1", 70));
+
+        assertTitles(PostMerge.merge(Arrays.asList(a, b, c)), "a1", "b1", "c1", "b2", "a2", "b3", "a3");
+    }
+
+    @Test
+    void sortsSourcesThatAreNotInOrder(){
+        List<Post> oldestFirst = Arrays.asList(post("o1", 10), post("o2", 30), post("o3", 50));
+        List<Post> shuffled = Arrays.asList(post("s1", 40), post("s2", 60), post("s3", 20));
+
+        assertTitles(PostMerge.merge(Arrays.asList(oldestFirst, shuffled)), "s2", "o3", "s1", "o2", "s3", "o1");
+        // The lists given are left as they were
+        Assertions.assertEquals("o1", oldestFirst.get(0).title);
+        Assertions.assertEquals("s1", shuffled.get(0).title);
+    }
+
+    @Test
+    void equalTimesKeepSourceOrder(){
+        List<Post> a = Arrays.asList(post("a1", 50), post("a2", 50));
+        List<Post> b = Arrays.asList(post("b1", 50), post("b2", 40));
+        List<Post> c = Collections.singletonList(post("c1", 50));
+
+        assertTitles(PostMerge.merge(Arrays.asList(a, b, c)), "a1", "a2", "b1", "c1", "b2");
+        assertTitles(PostMerge.merge(Arrays.asList(c, b, a)), "c1", "b1", "a1", "a2", "b2");
+    }
+
+    @Test
+    void postsWithoutDateComeFirst(){
+        List<Post> a = Arrays.asList(post("a1", 50), post("undated", -1));
+        List<Post> b = Collections.singletonList(post("b1", 60));
+
+        assertTitles(PostMerge.merge(Arrays.asList(a, b)), "undated", "b1", "a1");
+    }
+
+    @Test
+    void skipsMissingSources(){
+        List<Post> a = Collections.singletonList(post("a1", 10));
+        Assertions.assertTrue(PostMerge.merge(new ArrayList<>()).isEmpty());
+        Assertions.assertTrue(PostMerge.merge(Arrays.asList(null, new ArrayList<>())).isEmpty());
+        assertTitles(PostMerge.merge(Arrays.asList(null, a, new ArrayList<>())), "a1");
+    }
+
+    @Test
+    void singleSourceIsCopied(){
+        List<Post> a = new ArrayList<>(Arrays.asList(post("a1", 20), post("a2", 10)));
+        List<Post> merged = PostMerge.merge(Collections.singletonList(a));
+        assertTitles(merged, "a1", "a2");
+
+        merged.clear();
+        Assertions.assertEquals(2, a.size());
+    }
+
+    @Test
+    void matchesStableSort(){
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            List<List<Post>> sources = new ArrayList<>();
+            int count = random.nextInt(8);
+            for (int s = 0; s < count; s++) {
+                List<Post> posts = new ArrayList<>();
+                int size = random.nextInt(30);
+                for (int i = 0; i < size; i++) {
+                    // Few distinct times, so there are plenty of ties
+                    posts.add(post(s + ":" + i, random.nextInt(10) == 0 ? -1 : random.nextInt(20)));
+                }
+                if (random.nextBoolean()) {
+                    posts.sort(Collections.reverseOrder((x, y) -> Long.compare(x.getSortKey(), y.getSortKey())));
+                }
+                sources.add(posts);
+            }
+
+            // Each source sorted on its own, then all of them sorted stably in source order
+            List<Post> expected = new ArrayList<>();
+            for (List<Post> posts : sources) {
+                List<Post> sorted = new ArrayList<>(posts);
+                sorted.sort((x, y) -> Long.compare(y.getSortKey(), x.getSortKey()));
+                expected.addAll(sorted);
+            }
+            expected.sort((x, y) -> Long.compare(y.getSortKey(), x.getSortKey()));
+
+            List<Post> merged = PostMerge.merge(sources);
+            Assertions.assertEquals(expected.size(), merged.size(), "round " + round);
+            for (int i = 0; i < expected.size(); i++) {
+                Assertions.assertSame(expected.get(i), merged.get(i), "round " + round + " position " + i);
+            }
+        }
+    }
+
+    private static void assertTitles(List<Post> posts, String... titles){
+        List<String> actual = new ArrayList<>();
+        for (Post post : posts) {
+            actual.add(post.title);
+        }
+        Assertions.assertEquals(Arrays.asList(titles), actual);
+    }
+
+    /**
+     * @param time publish time, or negative for a post without one
+     */
+    private static Post post(String title, long time){
+        Post post = new Post();
+        post.title = title;
+        post.link = "https://example.com/" + title;
+        post.pubDate = time < 0 ? null : new Date(time * 1000);
+        return post;
+    }
+}
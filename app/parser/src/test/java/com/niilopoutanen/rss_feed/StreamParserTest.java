@@ -0,0 +1,164 @@
+package com.niilopoutanen.rss_feed;
+
+import com.niilopoutanen.rss_feed.parser.Parser;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The pull parser and the Jsoup parsers it falls back to should read every feed the same way
+ */
+class StreamParserTest {
+    @Test
+    void rss() throws Exception {
+        byte[] feed = read("rss.xml");
+        Parser stream = parseStream(feed);
+        assertSameAsDom(stream, feed);
+
+        Assertions.assertEquals("Example News", stream.source.title);
+        Assertions.assertEquals("https://example.com/", stream.source.home);
+        List<Post> posts = stream.posts;
+        Assertions.assertEquals(3, posts.size());
+
+        Post first = find(posts, "First post");
+        Assertions.assertEquals("https://example.com/first", first.link);
+        Assertions.assertEquals(date("2002-10-02T13:00:00Z"), first.pubDate);
+        Assertions.assertEquals("https://example.com/images/first.jpg", first.image);
+        Assertions.assertEquals(Arrays.asList("World", "Politics"), first.getCategories());
+        Assertions.assertEquals("Jane Doe", first.author);
+        Assertions.assertEquals("The first post & more", first.description);
+
+        Post second = find(posts, "Second post");
+        Assertions.assertEquals("https://example.com/second", second.link);
+        Assertions.assertEquals(date("2002-10-03T08:30:00+02:00"), second.pubDate);
+        Assertions.assertEquals("https://example.com/images/second.png", second.image);
+        Assertions.assertEquals(Collections.singletonList("Tech"), second.getCategories());
+
+        Post third = find(posts, "Third post");
+        Assertions.assertNull(third.pubDate);
+        Assertions.assertEquals("https://example.com/images/third.jpg", third.image);
+        Assertions.assertEquals("Example News", third.author);
+    }
+
+    @Test
+    void atom() throws Exception {
+        byte[] feed = read("atom.xml");
+        Parser stream = parseStream(feed);
+        assertSameAsDom(stream, feed);
+
+        Assertions.assertEquals("Example Blog", stream.source.title);
+        Assertions.assertEquals("https://example.org/", stream.source.home);
+        Assertions.assertEquals("https://example.org/logo.png", stream.source.image);
+        List<Post> posts = stream.posts;
+        Assertions.assertEquals(2, posts.size());
+
+        Post one = find(posts, "Atom entry one");
+        Assertions.assertEquals("https://example.org/2003/12/13/one", one.link);
+        Assertions.assertEquals(date("2003-12-13T08:29:29-04:00"), one.pubDate);
+        Assertions.assertEquals("https://example.org/images/one.jpg", one.image);
+        Assertions.assertEquals(Arrays.asList("Travel", "Photos"), one.getCategories());
+        Assertions.assertEquals("John Doe", one.author);
+        Assertions.assertEquals("Some text", one.description);
+
+        Post two = find(posts, "Atom entry two");
+        Assertions.assertEquals("https://example.org/2003/12/14/two", two.link);
+        Assertions.assertEquals(date("2003-12-14T18:30:02.250Z"), two.pubDate);
+        Assertions.assertTrue(two.getCategories().isEmpty());
+    }
+
+    @Test
+    void rdf() throws Exception {
+        byte[] feed = read("rdf.xml");
+        Parser stream = parseStream(feed);
+        assertSameAsDom(stream, feed);
+
+        Assertions.assertEquals("Example RDF", stream.source.title);
+        List<Post> posts = stream.posts;
+        Assertions.assertEquals(2, posts.size());
+
+        Post a = find(posts, "RDF item A");
+        Assertions.assertEquals("https://example.net/a", a.link);
+        Assertions.assertEquals(date("2004-01-01T12:00:00+01:00"), a.pubDate);
+        Assertions.assertEquals("Alice", a.author);
+        Assertions.assertNull(a.image);
+
+        Post b = find(posts, "RDF item B");
+        Assertions.assertEquals(date("2004-01-02T12:00:00Z"), b.pubDate);
+        Assertions.assertEquals("Example RDF", b.author);
+    }
+
+    @Test
+    void notAFeed() throws Exception {
+        Parser stream = parseStream("<html><body><p>Hello</p></body></html>".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertNull(stream.source);
+        Assertions.assertTrue(stream.posts.isEmpty());
+    }
+
+    private static void assertSameAsDom(Parser stream, byte[] feed) {
+        Parser dom = new Parser(Parser.Engine.DOM);
+        dom.parse(Jsoup.parse(new String(feed, StandardCharsets.UTF_8), "", org.jsoup.parser.Parser.xmlParser()));
+
+        Assertions.assertNotNull(stream.source);
+        Assertions.assertNotNull(dom.source);
+        Assertions.assertEquals(dom.source.title, stream.source.title);
+        Assertions.assertEquals(dom.source.home, stream.source.home);
+        Assertions.assertEquals(dom.source.image, stream.source.image);
+        Assertions.assertEquals(dom.posts.size(), stream.posts.size());
+        for (int i = 0; i < stream.posts.size(); i++) {
+            Post expected = dom.posts.get(i);
+            Post actual = stream.posts.get(i);
+            String name = actual.title;
+            Assertions.assertEquals(expected.title, actual.title, name);
+            Assertions.assertEquals(expected.link, actual.link, name);
+            Assertions.assertEquals(expected.pubDate, actual.pubDate, name);
+            Assertions.assertEquals(expected.image, actual.image, name);
+            Assertions.assertEquals(expected.getCategories(), actual.getCategories(), name);
+            Assertions.assertEquals(expected.author, actual.author, name);
+            Assertions.assertEquals(expected.description, actual.description, name);
+        }
+    }
+
+    private static Parser parseStream(byte[] feed) throws Exception {
+        Parser parser = new Parser(Parser.Engine.STREAM);
+        parser.parse(new ByteArrayInputStream(feed), "UTF-8");
+        return parser;
+    }
+
+    private static Post find(List<Post> posts, String title) {
+        for (Post post : posts) {
+            if (title.equals(post.title)) return post;
+        }
+        Assertions.fail("No post " + title);
+        return null;
+    }
+
+    private static Date date(String iso) {
+        return Date.from(ZonedDateTime.parse(iso).toInstant());
+    }
+
+    private static byte[] read(String name) throws IOException {
+        try (InputStream stream = StreamParserTest.class.getResourceAsStream("/feeds/" + name)) {
+            Assertions.assertNotNull(stream, name);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.niilopoutanen.rss_feed;
+
+import com.niilopoutanen.rss_feed.parser.SyncPlanner;
+import com.niilopoutanen.rss_feed.parser.UpdateHints;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+class SyncPlannerTest {
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Monday 2024-01-01 00:00 GMT
+     */
+    private static final long NOW = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    @Test
+    void defaultWithoutDates(){
+        Assertions.assertEquals(NOW + SyncPlanner.DEFAULT_INTERVAL, SyncPlanner.nextCheck(NOW, null, null));
+        Assertions.assertEquals(NOW + SyncPlanner.DEFAULT_INTERVAL, SyncPlanner.nextCheck(NOW, new ArrayList<>(), null));
+        Assertions.assertEquals(NOW + SyncPlanner.DEFAULT_INTERVAL, SyncPlanner.nextCheck(NOW, posts(NOW - HOUR), null));
+
+        List<Post> undated = posts(NOW - HOUR, NOW - 2 * HOUR);
+        for (Post post : undated) post.pubDate = null;
+        Assertions.assertEquals(NOW + SyncPlanner.DEFAULT_INTERVAL, SyncPlanner.nextCheck(NOW, undated, null));
+    }
+
+    @Test
+    void learnsMedianGap(){
+        // Hourly, with one long gap that the median ignores
+        List<Post> posts = posts(NOW - 10 * MINUTE, NOW - 70 * MINUTE, NOW - 130 * MINUTE, NOW - 190 * MINUTE, NOW - 190 * MINUTE - DAY);
+        Assertions.assertEquals(NOW + HOUR, SyncPlanner.nextCheck(NOW, posts, null));
+    }
+
+    @Test
+    void clampsToLimits(){
+        List<Post> frequent = posts(NOW - MINUTE, NOW - 6 * MINUTE, NOW - 11 * MINUTE, NOW - 16 * MINUTE);
+        Assertions.assertEquals(NOW + SyncPlanner.MIN_INTERVAL, SyncPlanner.nextCheck(NOW, frequent, null));
+
+        List<Post> weekly = posts(NOW - MINUTE, NOW - 7 * DAY, NOW - 14 * DAY);
+        Assertions.assertEquals(NOW + SyncPlanner.MAX_INTERVAL, SyncPlanner.nextCheck(NOW, weekly, null));
+    }
+
+    @Test
+    void quietFeedsSlowDown(){
+        // Hourly posts, but the last one was 6 hours ago
+        List<Post> posts = posts(NOW - 6 * HOUR, NOW - 7 * HOUR, NOW - 8 * HOUR);
+        Assertions.assertEquals(NOW + 3 * HOUR, SyncPlanner.nextCheck(NOW, posts, null));
+    }
+
+    @Test
+    void ignoresFutureDates(){
+        List<Post> posts = posts(NOW + DAY, NOW + 2 * DAY, NOW - 10 * MINUTE, NOW - 70 * MINUTE);
+        Assertions.assertEquals(NOW + HOUR, SyncPlanner.nextCheck(NOW, posts, null));
+    }
+
+    @Test
+    void hintsOnlyLengthen(){
+        List<Post> hourly = posts(NOW - 10 * MINUTE, NOW - 70 * MINUTE, NOW - 130 * MINUTE);
+
+        UpdateHints ttl = new UpdateHints();
+        ttl.setTtl(" 180 ");
+        Assertions.assertEquals(NOW + 3 * HOUR, SyncPlanner.nextCheck(NOW, hourly, ttl));
+
+        UpdateHints shortTtl = new UpdateHints();
+        shortTtl.setTtl("5");
+        Assertions.assertEquals(NOW + HOUR, SyncPlanner.nextCheck(NOW, hourly, shortTtl));
+
+        UpdateHints hugeTtl = new UpdateHints();
+        hugeTtl.setTtl(String.valueOf(TimeUnit.DAYS.toMinutes(60)));
+        Assertions.assertEquals(NOW + SyncPlanner.MAX_HINTED_INTERVAL, SyncPlanner.nextCheck(NOW, hourly, hugeTtl));
+
+        UpdateHints invalid = new UpdateHints();
+        invalid.setTtl("soon");
+        invalid.setTtl(null);
+        Assertions.assertEquals(0, invalid.getMinInterval(NOW));
+    }
+
+    @Test
+    void syndicationAndExpires(){
+        UpdateHints daily = new UpdateHints();
+        daily.setUpdatePeriod(" Daily ");
+        daily.setUpdateFrequency("4");
+        Assertions.assertEquals(6 * HOUR, daily.getMinInterval(NOW));
+
+        UpdateHints zero = new UpdateHints();
+        zero.setUpdatePeriod("hourly");
+        zero.setUpdateFrequency("0");
+        Assertions.assertEquals(HOUR, zero.getMinInterval(NOW));
+
+        UpdateHints unknown = new UpdateHints();
+        unknown.setUpdatePeriod("fortnightly");
+        Assertions.assertEquals(0, unknown.getMinInterval(NOW));
+
+        UpdateHints expires = new UpdateHints();
+        expires.setTtl("60");
+        expires.setExpires(NOW + 4 * HOUR);
+        Assertions.assertEquals(4 * HOUR, expires.getMinInterval(NOW));
+        // Already expired
+        Assertions.assertEquals(HOUR, expires.getMinInterval(NOW + 5 * HOUR));
+    }
+
+    @Test
+    void skipHours(){
+        UpdateHints hints = new UpdateHints();
+        hints.addSkipHour("2");
+        hints.addSkipHour(" 3 ");
+        hints.addSkipHour("4");
+        hints.addSkipHour("25");
+        hints.addSkipHour("x");
+        Assertions.assertTrue(hints.isSkipped(NOW + 2 * HOUR));
+        Assertions.assertTrue(hints.isSkipped(NOW + 4 * HOUR + 59 * MINUTE));
+        Assertions.assertFalse(hints.isSkipped(NOW + HOUR));
+        Assertions.assertFalse(hints.isSkipped(NOW + 5 * HOUR));
+
+        // The default two hours lands on a skipped hour, so it moves to the first allowed one
+        Assertions.assertEquals(NOW + 5 * HOUR, SyncPlanner.nextCheck(NOW, null, hints));
+
+        UpdateHints midnight = new UpdateHints();
+        midnight.addSkipHour("24");
+        Assertions.assertTrue(midnight.isSkipped(NOW));
+        Assertions.assertFalse(midnight.isSkipped(NOW + HOUR));
+    }
+
+    @Test
+    void skipDays(){
+        UpdateHints hints = new UpdateHints();
+        hints.addSkipDay("Saturday");
+        hints.addSkipDay(" sunday");
+        hints.addSkipDay("someday");
+        hints.addSkipDay(null);
+        Assertions.assertFalse(hints.isSkipped(NOW));
+        Assertions.assertTrue(hints.isSkipped(NOW - HOUR));
+
+        // Friday 23:00, two hours later is Saturday so it waits until Monday
+        long friday = NOW - 2 * DAY - HOUR;
+        Assertions.assertEquals(NOW, SyncPlanner.nextCheck(friday, null, hints));
+    }
+
+    @Test
+    void neverSkipsForever(){
+        UpdateHints hints = new UpdateHints();
+        for (String day : new String[]{"sunday", "monday", "tuesday", "wednesday", "thursday", "friday", "saturday"}) {
+            hints.addSkipDay(day);
+        }
+        long next = SyncPlanner.nextCheck(NOW, null, hints);
+        Assertions.assertTrue(next > NOW && next <= NOW + SyncPlanner.DEFAULT_INTERVAL + 7 * DAY, "next " + next);
+    }
+
+    private static List<Post> posts(long... times){
+        List<Post> posts = new ArrayList<>();
+        for (long time : times) {
+            Post post = new Post();
+            post.title = "Post " + time;
+            post.pubDate = new Date(time);
+            posts.add(post);
+        }
+        return posts;
+    }
+}
@@ -0,0 +1,33 @@
+package com.niilopoutanen.rss_feed.rss;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembered result of a feed or icon lookup. A null url means nothing was found.
+ */
+@Entity(tableName = "discovery")
+public class DiscoveryEntry {
+    public static final long FOUND_TTL = TimeUnit.DAYS.toMillis(7);
+    public static final long MISSING_TTL = TimeUnit.HOURS.toMillis(6);
+
+    @PrimaryKey
+    @NonNull
+    public String key;
+
+    public String url;
+    public String type;
+    public long updated;
+
+    public DiscoveryEntry(@NonNull String key) {
+        this.key = key;
+    }
+
+    public boolean isFresh() {
+        long ttl = url != null ? FOUND_TTL : MISSING_TTL;
+        return System.currentTimeMillis() - updated < ttl;
+    }
+}
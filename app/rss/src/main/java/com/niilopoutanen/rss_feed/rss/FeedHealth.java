@@ -0,0 +1,86 @@
+package com.niilopoutanen.rss_feed.rss;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recent fetch results of a feed.
+ * After repeated failures the feed is skipped for a while that doubles with every further failure,
+ * and a Retry-After from the server is always respected.
+ */
+@Entity(tableName = "health")
+public class FeedHealth {
+    /**
+     * Failures in a row before the feed starts to be skipped
+     */
+    public static final int FAILURE_THRESHOLD = 3;
+    public static final long BASE_BACKOFF = TimeUnit.MINUTES.toMillis(15);
+    public static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(24);
+
+    @PrimaryKey
+    @NonNull
+    public String url;
+
+    /**
+     * Failures in a row, reset by a successful fetch
+     */
+    public int failures;
+    /**
+     * HTTP status of the last fetch, or a negative error type if there was no response
+     */
+    public int lastStatus;
+    /**
+     * Time the server asked not to be contacted before, or 0
+     */
+    public long retryAfter;
+    /**
+     * Time the feed is skipped until, or 0
+     */
+    public long blockedUntil;
+    public long updated;
+
+    public FeedHealth(@NonNull String url) {
+        this.url = url;
+    }
+
+    public boolean isSkipped(long now) {
+        return blockedUntil > now;
+    }
+
+    public boolean isHealthy() {
+        return failures == 0;
+    }
+
+    public void onSuccess(int status, long now) {
+        failures = 0;
+        lastStatus = status;
+        retryAfter = 0;
+        blockedUntil = 0;
+        updated = now;
+    }
+
+    /**
+     * @param retryAfter time from the Retry-After header, or 0
+     */
+    public void onFailure(int status, long retryAfter, long now) {
+        failures++;
+        lastStatus = status;
+        this.retryAfter = retryAfter;
+        updated = now;
+
+        long backoff = 0;
+        if (failures >= FAILURE_THRESHOLD) {
+            int doublings = Math.min(failures - FAILURE_THRESHOLD, 16);
+            backoff = Math.min(BASE_BACKOFF << doublings, MAX_BACKOFF);
+        }
+        else if (status == 429 || status == 503) {
+            // Rate limited without saying for how long
+            backoff = BASE_BACKOFF;
+        }
+        blockedUntil = Math.max(now + backoff, retryAfter);
+        if (blockedUntil == now) blockedUntil = 0;
+    }
+}
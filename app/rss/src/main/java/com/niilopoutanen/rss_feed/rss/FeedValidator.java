@@ -0,0 +1,26 @@
+package com.niilopoutanen.rss_feed.rss;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * HTTP cache validators of a feed, sent back on the next fetch to make it conditional
+ */
+@Entity(tableName = "validator")
+public class FeedValidator {
+    @PrimaryKey
+    @NonNull
+    public String url;
+
+    public String etag;
+    public String lastModified;
+
+    public FeedValidator(@NonNull String url) {
+        this.url = url;
+    }
+
+    public boolean isEmpty() {
+        return etag == null && lastModified == null;
+    }
+}
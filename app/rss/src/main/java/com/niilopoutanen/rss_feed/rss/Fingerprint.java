@@ -0,0 +1,30 @@
+package com.niilopoutanen.rss_feed.rss;
+
+import java.util.List;
+
+/**
+ * 64-bit summary of a list of posts. Equal lists have equal fingerprints regardless of order.
+ */
+public class Fingerprint {
+    private Fingerprint() {}
+
+    public static long of(List<Post> posts) {
+        if (posts == null) return 0;
+        long sum = 0;
+        for (Post post : posts) {
+            if (post == null) continue;
+            // Summing keeps it order independent, mixing first keeps similar keys from cancelling out
+            sum += mix(post.getKey());
+        }
+        return mix(sum + posts.size());
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
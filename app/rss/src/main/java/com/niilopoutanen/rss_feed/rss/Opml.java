@@ -8,96 +8,250 @@ import android.util.Log;
 
 import androidx.activity.result.ActivityResult;
 
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.io.InvalidObjectException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.Set;
 
 public class Opml {
-    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>";
-    private static final String TEMPLATE =
-            "<opml version=\"1.0\">\n" +
+    private static final String HEADER =
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<opml version=\"2.0\">\n" +
                 "  <head>\n" +
                     "    <title>RSS-Feed subscriptions</title>\n" +
                 "  </head>\n" +
-                "  <body>\n" +
-                    "%s\n" +
+                "  <body>\n";
+    private static final String FOOTER =
                 "  </body>\n" +
-            "</opml>";
+            "</opml>\n";
 
     public static String encode(List<Source> sources) {
-        StringBuilder content = new StringBuilder();
+        StringWriter writer = new StringWriter();
+        try {
+            write(sources, writer);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return writer.toString();
+    }
+
+    public static void write(List<Source> sources, Uri uri, Context context) throws IOException {
+        try (OutputStream stream = context.getContentResolver().openOutputStream(uri)) {
+            if (stream == null) {
+                throw new FileNotFoundException("Cannot open " + uri);
+            }
+            write(sources, stream);
+        }
+    }
+
+    public static void write(List<Source> sources, OutputStream stream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        write(sources, writer);
+        writer.flush();
+    }
+
+    /**
+     * Writes the sources one outline at a time, folders become nested outlines.
+     * Only the order of the sources is copied, the document itself is never held in memory.
+     */
+    public static void write(List<Source> sources, Writer writer) throws IOException {
+        List<Source> sorted = new ArrayList<>(sources);
+        // Stable, so sources keep their order inside a folder
+        Collections.sort(sorted, (a, b) -> compareFolders(a.folder, b.folder));
+
+        writer.write(HEADER);
+        List<String> open = new ArrayList<>();
+        for (Source source : sorted) {
+            List<String> path = Source.splitFolder(source.folder);
+
+            int common = 0;
+            while (common < open.size() && common < path.size() && open.get(common).equals(path.get(common))) {
+                common++;
+            }
+            while (open.size() > common) {
+                open.remove(open.size() - 1);
+                indent(writer, open.size());
+                writer.write("</outline>\n");
+            }
+            while (open.size() < path.size()) {
+                String folder = path.get(open.size());
+                indent(writer, open.size());
+                writer.write("<outline text=\"");
+                escape(folder, writer);
+                writer.write("\" title=\"");
+                escape(folder, writer);
+                writer.write("\">\n");
+                open.add(folder);
+            }
+
+            indent(writer, open.size());
+            writer.write("<outline type=\"rss\" text=\"");
+            escape(source.title, writer);
+            writer.write("\" title=\"");
+            escape(source.title, writer);
+            writer.write("\" xmlUrl=\"");
+            escape(source.url, writer);
+            writer.write("\"");
+            if (source.home != null) {
+                writer.write(" htmlUrl=\"");
+                escape(source.home, writer);
+                writer.write("\"");
+            }
+            if (source.description != null) {
+                writer.write(" description=\"");
+                escape(source.description, writer);
+                writer.write("\"");
+            }
+            writer.write(" />\n");
+        }
+        while (!open.isEmpty()) {
+            open.remove(open.size() - 1);
+            indent(writer, open.size());
+            writer.write("</outline>\n");
+        }
+        writer.write(FOOTER);
+    }
 
-        sources.forEach(source ->
-                content.append(String.format("    <outline text=\"%s\" type=\"rss\" xmlUrl=\"%s\" description=\"%s\" />\n",
-                        source.title, source.url, source.description)));
+    /**
+     * Groups sources by folder, parent folders first.
+     * The separator sorts before any other character so that a folder's subfolders follow it directly.
+     */
+    private static int compareFolders(String a, String b) {
+        if (a == null) a = "";
+        if (b == null) b = "";
+        char separator = Source.FOLDER_SEPARATOR.charAt(0);
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = a.charAt(i);
+            char y = b.charAt(i);
+            if (x == y) continue;
+            if (x == separator) return -1;
+            if (y == separator) return 1;
+            return x - y;
+        }
+        return a.length() - b.length();
+    }
+
+    private static void indent(Writer writer, int depth) throws IOException {
+        for (int i = 0; i < depth + 2; i++) {
+            writer.write("  ");
+        }
+    }
 
-        return String.format("%s\n%s", XML_HEADER, String.format(TEMPLATE, content));
+    /**
+     * Escapes the text for an attribute value and drops characters XML 1.0 does not allow
+     */
+    static void escape(String text, Writer writer) throws IOException {
+        if (text == null) return;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': writer.write("&amp;"); break;
+                case '<': writer.write("&lt;"); break;
+                case '>': writer.write("&gt;"); break;
+                case '"': writer.write("&quot;"); break;
+                case '\'': writer.write("&apos;"); break;
+                case '\n': writer.write("&#10;"); break;
+                case '\r': writer.write("&#13;"); break;
+                case '\t': writer.write("&#9;"); break;
+                default:
+                    if (c >= 0x20 && c != 0xFFFE && c != 0xFFFF) {
+                        writer.write(c);
+                    }
+            }
+        }
     }
 
     public static List<Source> decode(String content) {
         if(!isOpml(content)) return null;
-        List<Source> sources = new ArrayList<>();
+        try {
+            List<Source> sources = read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+            return sources != null ? sources : new ArrayList<>();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
 
+    /**
+     * Reads the sources one outline at a time without building a document.
+     * Outlines without a feed url are read as folders, repeated urls are skipped.
+     * @return the sources, or null if the stream is not OPML
+     */
+    public static List<Source> read(InputStream stream) throws IOException {
+        List<Source> sources = new ArrayList<>();
+        Set<String> urls = new HashSet<>();
+        // Titles of the folder outlines around the current one, null for outlines that are not folders
+        List<String> folders = new ArrayList<>();
         try {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(new ByteArrayInputStream(content.getBytes()));
+            XmlPullParser parser = XmlPullParserFactory.newInstance().newPullParser();
+            parser.setInput(stream, null);
 
-            NodeList outlineNodes = document.getElementsByTagName("outline");
+            int type;
+            while ((type = parser.next()) != XmlPullParser.END_DOCUMENT) {
+                if (type == XmlPullParser.END_TAG && parser.getName().equals("outline")) {
+                    folders.remove(folders.size() - 1);
+                    continue;
+                }
+                if (type != XmlPullParser.START_TAG) continue;
+                if (parser.getDepth() == 1 && !parser.getName().equalsIgnoreCase("opml")) return null;
+                if (!parser.getName().equals("outline")) continue;
 
-            for (int i = 0; i < outlineNodes.getLength(); i++) {
-                Element outlineElement = (Element) outlineNodes.item(i);
-                String title = outlineElement.getAttribute("text");
-                String url = outlineElement.getAttribute("xmlUrl");
-                String description = outlineElement.getAttribute("description");
+                String title = getAttribute(parser, "text");
+                if (title == null) title = getAttribute(parser, "title");
+                String url = getAttribute(parser, "xmlUrl");
+                if (url == null || url.trim().isEmpty()) {
+                    folders.add(title);
+                    continue;
+                }
+                folders.add(null);
+                if (!urls.add(url.trim())) continue;
 
                 Source source = new Source();
                 source.title = title;
-                source.url = url;
-                source.description = description;
-                // test source
-                try {
-                    URL Url = new URL(url);
-                    fetchSource(Url);
-                    if(source.url != null && !source.url.isEmpty()){
-                        sources.add(source);
-                    }
-                } catch (Exception e) {
-                    // skip this sourcee
-                    Log.i("SKIPPED","Skipped source " + url);
-                }
-
+                source.url = url.trim();
+                source.home = getAttribute(parser, "htmlUrl");
+                source.description = getAttribute(parser, "description");
+                source.folder = Source.joinFolder(folders.subList(0, folders.size() - 1));
+                sources.add(source);
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (XmlPullParserException e) {
+            // Keep what was read before the malformed part
+            Log.i("SKIPPED", "Stopped reading OPML: " + e.getMessage());
         }
-
         return sources;
     }
-    private static void fetchSource(URL url) throws IOException {
-
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
 
-        // Set request method
-        connection.setRequestMethod("GET");
-        connection.setInstanceFollowRedirects(true);
+    /**
+     * Attribute names are matched ignoring case, as exporters disagree on it
+     */
+    private static String getAttribute(XmlPullParser parser, String name) {
+        for (int i = 0; i < parser.getAttributeCount(); i++) {
+            if (parser.getAttributeName(i).equalsIgnoreCase(name)) {
+                return parser.getAttributeValue(i);
+            }
+        }
+        return null;
     }
+
     public static boolean isOpml(String content) {
         if(!content.contains("<opml")){
             return false;
@@ -113,16 +267,14 @@ public class Opml {
     }
 
 
-    public static File cacheFile(String filename, String content, Context context) {
+    public static File cacheFile(String filename, List<Source> sources, Context context) {
         try {
             String fileName =  filename + ".opml";
 
             File tempFile = new File(context.getCacheDir(), fileName);
-
-            FileOutputStream fos = new FileOutputStream(tempFile);
-            OutputStreamWriter osw = new OutputStreamWriter(fos);
-            osw.write(content);
-            osw.close();
+            try (OutputStream stream = new FileOutputStream(tempFile)) {
+                write(sources, stream);
+            }
 
             return tempFile;
         } catch (Exception e) {
@@ -141,20 +293,12 @@ public class Opml {
                 throw new InvalidObjectException("No path for data");
             }
 
-            BufferedReader reader = null;
-            StringBuilder builder = new StringBuilder();
-            reader = new BufferedReader(new InputStreamReader(context.getContentResolver().openInputStream(uri)));
-
-            String line = "";
-            while ((line = reader.readLine()) != null)
-            {
-                builder.append(line);
+            try (InputStream stream = context.getContentResolver().openInputStream(uri)) {
+                if (stream == null) {
+                    throw new InvalidObjectException("No data");
+                }
+                return read(stream);
             }
-            reader.close();
-
-            String content = builder.toString();
-
-            return decode(content);
         }
         return null;
     }
@@ -2,6 +2,8 @@ package com.niilopoutanen.rss_feed.rss;
 
 import androidx.room.Entity;
 import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
 import java.io.Serializable;
@@ -10,7 +12,8 @@ import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
-@Entity(tableName = "post", foreignKeys = {@ForeignKey(entity = Source.class, parentColumns = "id", childColumns = "sourceId", onDelete = ForeignKey.CASCADE)})
+@Entity(tableName = "post", foreignKeys = {@ForeignKey(entity = Source.class, parentColumns = "id", childColumns = "sourceId", onDelete = ForeignKey.CASCADE)},
+        indices = {@Index(value = {"sourceId", "link"}, unique = true), @Index(value = {"pubDate"}), @Index(value = {"sourceId", "pubDate"})})
 public class Post implements Comparable<Post>, Serializable {
 
     @PrimaryKey(autoGenerate = true)
@@ -20,11 +23,28 @@ public class Post implements Comparable<Post>, Serializable {
     public String link;
     public String description;
     public String author;
-    private final List<String> categories = new ArrayList<>();
-    private final List<String> comments = new ArrayList<>();
+    private List<String> categories = new ArrayList<>();
+    private List<String> comments = new ArrayList<>();
     public String image;
     public Date pubDate;
 
+    @Ignore
+    private transient volatile Key key;
+
+    public int getId() {
+        return id;
+    }
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getSourceId() {
+        return sourceId;
+    }
+    public void setSourceId(int sourceId) {
+        this.sourceId = sourceId;
+    }
+
     public void addComment(String comment){
         this.comments.add(comment);
     }
@@ -49,43 +69,96 @@ public class Post implements Comparable<Post>, Serializable {
         return this.categories;
     }
 
+    /**
+     * Newest first. Posts without a date are placed on top.
+     */
     @Override
     public int compareTo(Post post) {
-        if (post == null || post.pubDate == null) {
-            // If the other item or its pubDate is null, place this item on top
+        if (post == null) {
             return (pubDate == null) ? 0 : 1;
-        } else if (pubDate == null) {
-            // If this item's pubDate is null, place it on top
-            return -1;
-        } else {
-            return post.pubDate.compareTo(pubDate);
         }
+        return Long.compare(post.getSortKey(), getSortKey());
     }
 
+    /**
+     * Publish time in epoch millis. Posts without a date sort as the newest.
+     */
+    public long getSortKey() {
+        return pubDate != null ? pubDate.getTime() : Long.MAX_VALUE;
+    }
+
+
+    /**
+     * Stable identity of the post, a 64-bit hash of its source and link (or title if it has none).
+     * Computed once and recomputed only if they change. Safe to call from several threads.
+     */
+    public long getKey() {
+        String identity = getIdentity();
+        Key current = key;
+        if (current == null || current.identity != identity || current.sourceId != sourceId) {
+            current = new Key(identity, sourceId);
+            key = current;
+        }
+        return current.value;
+    }
+
+    private String getIdentity() {
+        return link != null ? link : title;
+    }
+
+    /**
+     * FNV-1a
+     */
+    private static long hash(String value, int sourceId) {
+        if (value == null) return 0;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= sourceId;
+        hash *= 0x100000001b3L;
+        return hash;
+    }
+
+    /**
+     * The key together with what it was computed from, replaced as a whole so readers never see a mix of two
+     */
+    private static final class Key {
+        private final String identity;
+        private final int sourceId;
+        private final long value;
+
+        Key(String identity, int sourceId) {
+            this.identity = identity;
+            this.sourceId = sourceId;
+            this.value = hash(identity, sourceId);
+        }
+    }
+
+    /**
+     * @return true if everything shown of the post is the same
+     */
+    public boolean hasSameContent(Post post) {
+        if (post == null) return false;
+        return Objects.equals(title, post.title)
+                && Objects.equals(description, post.description)
+                && Objects.equals(image, post.image)
+                && Objects.equals(author, post.author)
+                && Objects.equals(pubDate, post.pubDate);
+    }
 
     @Override
     public int hashCode() {
-        return Objects.hash(title, description, link);
+        return Long.hashCode(getKey());
     }
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Post post = (Post) o;
-        if(title == null || post.title == null) return false;
-        if(!title.equals(post.title)){
-            return false;
-        }
-        if(description == null || post.description == null) return false;
-        if(!description.equals(post.description)){
-            return false;
-        }
-
-        if(link == null || post.link == null) return false;
-        if(!link.equals(post.link)){
-            return false;
-        }
+        if(getIdentity() == null || post.getIdentity() == null) return false;
 
-        return true;
+        return sourceId == post.sourceId && getKey() == post.getKey();
     }
 }
@@ -0,0 +1,18 @@
+package com.niilopoutanen.rss_feed.rss;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+import androidx.room.FtsOptions;
+
+/**
+ * Full text index of the stored posts.
+ * The text stays in the post table, Room keeps the index in sync with it through triggers.
+ */
+@Fts4(contentEntity = Post.class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "post_fts")
+public class PostFts {
+    public String title;
+    public String description;
+    public String author;
+    public String categories;
+}
@@ -4,9 +4,13 @@ import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity(tableName = "source")
 public class Source implements Serializable {
+    public static final String FOLDER_SEPARATOR = "/";
+
     @PrimaryKey(autoGenerate = true)
     public int id;
 
@@ -21,6 +25,37 @@ public class Source implements Serializable {
 
     public boolean visible = true;
 
+    /**
+     * Path of the folder the source is in, or null if it is not in one
+     */
+    public String folder;
+
+    /**
+     * @return names of the nested folders in the path, outermost first
+     */
+    public static List<String> splitFolder(String folder){
+        List<String> names = new ArrayList<>();
+        if(folder == null || folder.isEmpty()) return names;
+        for(String name : folder.split(FOLDER_SEPARATOR)){
+            if(!name.isEmpty()) names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Names that are null are skipped, the separator is removed from the names
+     * @return the folder path, or null if there are no names
+     */
+    public static String joinFolder(List<String> names){
+        StringBuilder path = new StringBuilder();
+        for(String name : names){
+            if(name == null || name.trim().isEmpty()) continue;
+            if(path.length() > 0) path.append(FOLDER_SEPARATOR);
+            path.append(name.replace(FOLDER_SEPARATOR, " ").trim());
+        }
+        return path.length() > 0 ? path.toString() : null;
+    }
+
     /**
      * Use for data safety
      */
@@ -0,0 +1,22 @@
+package com.niilopoutanen.rss_feed.rss;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * When a feed was last fetched in the background and when it should be fetched next
+ */
+@Entity(tableName = "sync")
+public class SyncState {
+    @PrimaryKey
+    @NonNull
+    public String url;
+
+    public long lastCheck;
+    public long nextCheck;
+
+    public SyncState(@NonNull String url) {
+        this.url = url;
+    }
+}
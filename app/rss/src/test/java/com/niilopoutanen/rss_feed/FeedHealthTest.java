@@ -0,0 +1,109 @@
+package com.niilopoutanen.rss_feed;
+
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class FeedHealthTest {
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    void skippedOnlyAfterThreshold(){
+        FeedHealth health = new FeedHealth("https://example.com/feed");
+        for (int i = 1; i < FeedHealth.FAILURE_THRESHOLD; i++) {
+            health.onFailure(500, 0, NOW);
+            Assertions.assertEquals(i, health.failures);
+            Assertions.assertEquals(0, health.blockedUntil);
+            Assertions.assertFalse(health.isSkipped(NOW));
+            Assertions.assertFalse(health.isHealthy());
+        }
+
+        health.onFailure(500, 0, NOW);
+        Assertions.assertEquals(NOW + FeedHealth.BASE_BACKOFF, health.blockedUntil);
+        Assertions.assertTrue(health.isSkipped(NOW));
+        Assertions.assertTrue(health.isSkipped(NOW + FeedHealth.BASE_BACKOFF - 1));
+        Assertions.assertFalse(health.isSkipped(NOW + FeedHealth.BASE_BACKOFF));
+    }
+
+    @Test
+    void backoffDoublesUpToMax(){
+        FeedHealth health = failed(FeedHealth.FAILURE_THRESHOLD, NOW);
+        Assertions.assertEquals(15 * MINUTE, health.blockedUntil - NOW);
+        health.onFailure(500, 0, NOW);
+        Assertions.assertEquals(30 * MINUTE, health.blockedUntil - NOW);
+        health.onFailure(500, 0, NOW);
+        Assertions.assertEquals(60 * MINUTE, health.blockedUntil - NOW);
+
+        for (int i = 0; i < 100; i++) {
+            health.onFailure(-1, 0, NOW);
+            long backoff = health.blockedUntil - NOW;
+            Assertions.assertTrue(backoff > 0 && backoff <= FeedHealth.MAX_BACKOFF, "backoff " + backoff);
+        }
+        Assertions.assertEquals(FeedHealth.MAX_BACKOFF, health.blockedUntil - NOW);
+        Assertions.assertEquals(-1, health.lastStatus);
+    }
+
+    @Test
+    void rateLimitWithoutRetryAfter(){
+        FeedHealth health = new FeedHealth("https://example.com/feed");
+        health.onFailure(429, 0, NOW);
+        Assertions.assertEquals(NOW + FeedHealth.BASE_BACKOFF, health.blockedUntil);
+
+        health = new FeedHealth("https://example.com/feed");
+        health.onFailure(503, 0, NOW);
+        Assertions.assertEquals(NOW + FeedHealth.BASE_BACKOFF, health.blockedUntil);
+    }
+
+    @Test
+    void retryAfterIsRespected(){
+        // Before the threshold, a Retry-After alone blocks the feed
+        FeedHealth health = new FeedHealth("https://example.com/feed");
+        health.onFailure(500, NOW + 2 * MINUTE, NOW);
+        Assertions.assertEquals(NOW + 2 * MINUTE, health.blockedUntil);
+        Assertions.assertEquals(NOW + 2 * MINUTE, health.retryAfter);
+
+        // A later Retry-After extends the backoff, an earlier one doesn't shorten it
+        long later = NOW + TimeUnit.HOURS.toMillis(48);
+        health = failed(FeedHealth.FAILURE_THRESHOLD - 1, NOW);
+        health.onFailure(503, later, NOW);
+        Assertions.assertEquals(later, health.blockedUntil);
+        health.onFailure(503, NOW + MINUTE, NOW);
+        Assertions.assertEquals(NOW + 30 * MINUTE, health.blockedUntil);
+
+        // A Retry-After that has already passed doesn't block
+        health = new FeedHealth("https://example.com/feed");
+        health.onFailure(500, NOW - MINUTE, NOW);
+        Assertions.assertEquals(0, health.blockedUntil);
+        Assertions.assertFalse(health.isSkipped(NOW));
+    }
+
+    @Test
+    void successResets(){
+        FeedHealth health = failed(FeedHealth.FAILURE_THRESHOLD + 2, NOW);
+        health.onFailure(503, NOW + TimeUnit.DAYS.toMillis(2), NOW);
+        Assertions.assertTrue(health.isSkipped(NOW));
+
+        health.onSuccess(200, NOW + 1);
+        Assertions.assertTrue(health.isHealthy());
+        Assertions.assertFalse(health.isSkipped(NOW + 1));
+        Assertions.assertEquals(0, health.retryAfter);
+        Assertions.assertEquals(200, health.lastStatus);
+        Assertions.assertEquals(NOW + 1, health.updated);
+
+        // The backoff starts over after a success
+        health.onFailure(500, 0, NOW);
+        Assertions.assertEquals(0, health.blockedUntil);
+    }
+
+    private static FeedHealth failed(int failures, long now){
+        FeedHealth health = new FeedHealth("https://example.com/feed");
+        for (int i = 0; i < failures; i++) {
+            health.onFailure(500, 0, now);
+        }
+        return health;
+    }
+}
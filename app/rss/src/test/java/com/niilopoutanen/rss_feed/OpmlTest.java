@@ -0,0 +1,175 @@
+package com.niilopoutanen.rss_feed;
+
+import com.niilopoutanen.rss_feed.rss.Opml;
+import com.niilopoutanen.rss_feed.rss.Source;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class OpmlTest {
+    @Test
+    void readsFoldersAndAttributes() throws IOException {
+        List<Source> sources = read("<?xml version=\"1.0\"?>\n" +
+                "<opml version=\"1.0\"><head><title>Export</title></head><body>\n" +
+                "  <outline text=\"Root feed\" xmlUrl=\" https://example.com/root \" htmlUrl=\"https://example.com/\" description=\"Root\"/>\n" +
+                "  <outline title=\"News\">\n" +
+                "    <outline title=\"Only title\" XMLURL=\"https://example.com/news\"/>\n" +
+                "    <outline text=\"Local\">\n" +
+                "      <outline text=\"Helsinki\" xmlUrl=\"https://example.com/hki\"/>\n" +
+                "    </outline>\n" +
+                "  </outline>\n" +
+                "  <outline text=\"Empty folder\"></outline>\n" +
+                "  <outline text=\"After\" xmlUrl=\"https://example.com/after\"/>\n" +
+                "</body></opml>");
+
+        Assertions.assertEquals(4, sources.size());
+        Source root = sources.get(0);
+        Assertions.assertEquals("Root feed", root.title);
+        Assertions.assertEquals("https://example.com/root", root.url);
+        Assertions.assertEquals("https://example.com/", root.home);
+        Assertions.assertEquals("Root", root.description);
+        Assertions.assertNull(root.folder);
+
+        Assertions.assertEquals("Only title", sources.get(1).title);
+        Assertions.assertEquals("https://example.com/news", sources.get(1).url);
+        Assertions.assertEquals("News", sources.get(1).folder);
+        Assertions.assertEquals("News/Local", sources.get(2).folder);
+        Assertions.assertNull(sources.get(3).folder);
+    }
+
+    @Test
+    void skipsRepeatedUrls() throws IOException {
+        List<Source> sources = read("<opml><body>" +
+                "<outline text=\"First\" xmlUrl=\"https://example.com/feed\"/>" +
+                "<outline text=\"Folder\"><outline text=\"Again\" xmlUrl=\" https://example.com/feed\"/></outline>" +
+                "<outline text=\"Other\" xmlUrl=\"https://example.com/other\"/>" +
+                "</body></opml>");
+
+        Assertions.assertEquals(2, sources.size());
+        Assertions.assertEquals("First", sources.get(0).title);
+        Assertions.assertNull(sources.get(0).folder);
+        Assertions.assertEquals("Other", sources.get(1).title);
+    }
+
+    @Test
+    void feedOutlinesAreNotFolders() throws IOException {
+        // Some exporters nest outlines inside a feed outline
+        List<Source> sources = read("<opml><body><outline text=\"Folder\">" +
+                "<outline text=\"Parent\" xmlUrl=\"https://example.com/parent\">" +
+                "<outline text=\"Child\" xmlUrl=\"https://example.com/child\"/>" +
+                "</outline></outline></body></opml>");
+
+        Assertions.assertEquals(2, sources.size());
+        Assertions.assertEquals("Folder", sources.get(0).folder);
+        Assertions.assertEquals("Folder", sources.get(1).folder);
+    }
+
+    @Test
+    void notOpml() throws IOException {
+        Assertions.assertNull(read("<rss version=\"2.0\"><channel><title>Feed</title></channel></rss>"));
+        Assertions.assertNull(Opml.decode("<html><body>outline</body></html>"));
+        Assertions.assertTrue(read("<opml><body></body></opml>").isEmpty());
+    }
+
+    @Test
+    void roundTripEscapes() throws IOException {
+        Source source = source("Tom & Jerry's <\"news\">\tdaily\nedition", "https://example.com/feed?a=1&b=<2>", null);
+        source.home = "https://example.com/?x='y'";
+        source.description = "Line one\r\nLine two \u0001 \u00e4\u00f6 \ud83d\ude00";
+
+        List<Source> read = roundTrip(Arrays.asList(source));
+        Assertions.assertEquals(1, read.size());
+        Source copy = read.get(0);
+        Assertions.assertEquals(source.title, copy.title);
+        Assertions.assertEquals(source.url, copy.url);
+        Assertions.assertEquals(source.home, copy.home);
+        // Characters XML does not allow are dropped
+        Assertions.assertEquals("Line one\r\nLine two  \u00e4\u00f6 \ud83d\ude00", copy.description);
+    }
+
+    @Test
+    void roundTripNestedFolders() throws IOException {
+        List<Source> sources = Arrays.asList(
+                source("Root one", "https://example.com/1", null),
+                source("Deep", "https://example.com/2", "News/Local/Helsinki"),
+                source("News one", "https://example.com/3", "News"),
+                source("Tech", "https://example.com/4", "Tech"),
+                source("Local", "https://example.com/5", "News/Local"),
+                source("News two", "https://example.com/6", "News"),
+                source("Similar name", "https://example.com/7", "News Local"),
+                source("Root two", "https://example.com/8", ""));
+
+        List<Source> read = roundTrip(sources);
+        Assertions.assertEquals(sources.size(), read.size());
+        for (Source original : sources) {
+            Source copy = find(read, original.url);
+            String folder = original.folder == null || original.folder.isEmpty() ? null : original.folder;
+            Assertions.assertEquals(folder, copy.folder, original.title);
+            Assertions.assertEquals(original.title, copy.title);
+        }
+
+        // Each folder is written once, with its sources in their original order
+        List<String> titles = new ArrayList<>();
+        for (Source source : read) {
+            titles.add(source.title);
+        }
+        Assertions.assertEquals(Arrays.asList("Root one", "Root two", "News one", "News two", "Local", "Deep", "Similar name", "Tech"), titles);
+    }
+
+    @Test
+    void roundTripRepeatedUrls() throws IOException {
+        List<Source> read = roundTrip(Arrays.asList(
+                source("First", "https://example.com/feed", "A"),
+                source("Second", "https://example.com/feed", "B"),
+                source("Other", "https://example.com/other", null)));
+
+        Assertions.assertEquals(2, read.size());
+        Assertions.assertEquals("First", find(read, "https://example.com/feed").title);
+        Assertions.assertEquals("A", find(read, "https://example.com/feed").folder);
+    }
+
+    @Test
+    void encodeMatchesWrite() throws IOException {
+        List<Source> sources = Arrays.asList(source("A & B", "https://example.com/a", "X/Y"));
+        StringWriter writer = new StringWriter();
+        Opml.write(sources, writer);
+        Assertions.assertEquals(writer.toString(), Opml.encode(sources));
+        Assertions.assertTrue(Opml.isOpml(writer.toString()));
+    }
+
+    private static List<Source> roundTrip(List<Source> sources) throws IOException {
+        StringWriter writer = new StringWriter();
+        Opml.write(sources, writer);
+        List<Source> read = read(writer.toString());
+        Assertions.assertNotNull(read, writer.toString());
+        return read;
+    }
+
+    private static Source source(String title, String url, String folder) {
+        Source source = new Source();
+        source.title = title;
+        source.url = url;
+        source.folder = folder;
+        return source;
+    }
+
+    private static Source find(List<Source> sources, String url) {
+        for (Source source : sources) {
+            if (url.equals(source.url)) return source;
+        }
+        Assertions.fail("No source " + url);
+        return null;
+    }
+
+    private static List<Source> read(String opml) throws IOException {
+        return Opml.read(new ByteArrayInputStream(opml.getBytes(StandardCharsets.UTF_8)));
+    }
+}
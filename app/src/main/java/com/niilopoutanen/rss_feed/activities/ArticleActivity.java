@@ -4,6 +4,7 @@ import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
 import android.util.DisplayMetrics;
+import android.view.Gravity;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.Window;
@@ -17,7 +18,6 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import androidx.activity.EdgeToEdge;
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -26,23 +26,15 @@ import androidx.core.view.WindowInsetsCompat;
 import com.google.android.material.bottomsheet.BottomSheetBehavior;
 import com.google.android.material.bottomsheet.BottomSheetDialog;
 //import com.google.firebase.analytics.FirebaseAnalytics;
+import com.niilopoutanen.rss_feed.article.ArticleProcessor;
 import com.niilopoutanen.rss_feed.common.PreferencesManager;
 import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.common.models.Preferences;
 import com.niilopoutanen.rss_feed.fragments.components.ArticleView;
-import com.niilopoutanen.rss_feed.parser.Callback;
+import com.niilopoutanen.rss_feed.fragments.components.ArticleViewPool;
 import com.niilopoutanen.rss_feed.parser.RSSException;
-import com.niilopoutanen.rss_feed.parser.WebUtils;
 import com.niilopoutanen.rss_feed.rss.Post;
 
-import net.dankito.readability4j.Article;
-import net.dankito.readability4j.Readability4J;
-
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
-
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.concurrent.Executor;
@@ -52,7 +44,6 @@ public class ArticleActivity extends AppCompatActivity {
     private ProgressBar articleLoader;
     private Post post;
     private ArticleView articleView;
-    private String resultData;
     private Preferences preferences;
 
 
@@ -67,38 +58,13 @@ public class ArticleActivity extends AppCompatActivity {
         preferences = PreferencesManager.loadPreferences(this);
         post = (Post) extras.get("post");
 
-        if (savedInstanceState != null) {
-            resultData = savedInstanceState.getString("content");
-        }
-
         PreferencesManager.setSavedTheme(this, preferences);
         setContentView(com.niilopoutanen.rss_feed.R.layout.activity_article);
         articleLoader = findViewById(com.niilopoutanen.rss_feed.R.id.article_load);
 
         initializeBase();
 
-        if (resultData == null || resultData.isEmpty()) {
-            processArticle(post.link, new Callback<String>() {
-                @Override
-                public void onResult(String result) {
-                    resultData = result;
-                    initWebView(result);
-                }
-
-                @Override
-                public void onError(RSSException e) {
-                    if (e.getErrorType() == HttpURLConnection.HTTP_NOT_FOUND) {
-                        initWebView(getString(R.string.error_url));
-                    } else if (e.getErrorType() == HttpURLConnection.HTTP_CLIENT_TIMEOUT) {
-                        initWebView(getString(R.string.error_host));
-                    } else {
-                        initWebView(getString(R.string.error_notsupported));
-                    }
-                }
-            });
-        } else {
-            initWebView(resultData);
-        }
+        processArticle();
 
         Bundle params = new Bundle();
         params.putString("url", post.link);
@@ -107,7 +73,10 @@ public class ArticleActivity extends AppCompatActivity {
     }
 
     private void initializeBase() {
-        articleView = findViewById(com.niilopoutanen.rss_feed.R.id.articleview);
+        // Pooled views are usually already initialised, see FeedFragment
+        articleView = ArticleViewPool.obtain(this);
+        FrameLayout container = findViewById(com.niilopoutanen.rss_feed.R.id.article_container);
+        container.addView(articleView, new FrameLayout.LayoutParams(FrameLayout.LayoutParams.MATCH_PARENT, FrameLayout.LayoutParams.MATCH_PARENT, Gravity.CENTER_HORIZONTAL));
 
         if (preferences.s_articlefullscreen) {
             Window window = getWindow();
@@ -199,16 +168,6 @@ public class ArticleActivity extends AppCompatActivity {
     }
 
     private void initWebView(String html) {
-        if(html == null) return;
-        Document document = Jsoup.parse(html);
-
-        Elements h1Elements = document.select("h1");
-        if (h1Elements.isEmpty()) {
-            if (post.title != null) {
-                Element title = new Element("h1").text(post.title);
-                document.body().prependChild(title);
-            }
-        }
         articleView.setWebViewClient(new WebViewClient() {
             @Override
             public boolean shouldOverrideUrlLoading(WebView view, WebResourceRequest request) {
@@ -225,7 +184,7 @@ public class ArticleActivity extends AppCompatActivity {
                 });
             }
         });
-        articleView.loadDocument(document, post);
+        articleView.loadHtml(html);
     }
 
 
@@ -274,36 +233,42 @@ public class ArticleActivity extends AppCompatActivity {
     }
 
 
-    private void processArticle(String url, Callback<String> callBack) {
+    /**
+     * Builds the page of the article in the background, from the stored article if it was read or prefetched before
+     */
+    private void processArticle() {
         Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(() -> {
+            String html;
             try {
-                URL urlObject = new URL(url);
-                String html = WebUtils.connect(urlObject).toString();
-
-                Readability4J readability = new Readability4J(url, html);
-                Article article = readability.parse();
-                runOnUiThread(() -> callBack.onResult(article.getContent()));
-
-            } catch (RSSException r) {
-                runOnUiThread(() -> callBack.onError(r));
+                html = ArticleProcessor.process(this, post);
+            } catch (RSSException e) {
+                html = ArticleProcessor.renderMessage(this, post, getString(getErrorMessage(e)));
             } catch (Exception e) {
-                runOnUiThread(() -> callBack.onError(new RSSException(e.getMessage())));
+                html = ArticleProcessor.renderMessage(this, post, getString(R.string.error_notsupported));
             }
+            String page = html;
+            runOnUiThread(() -> {
+                if (!isDestroyed()) initWebView(page);
+            });
         });
     }
 
-    @Override
-    protected void onSaveInstanceState(@NonNull Bundle outState) {
-        super.onSaveInstanceState(outState);
-        outState.putString("content", resultData);
+    private static int getErrorMessage(RSSException e) {
+        if (e.getErrorType() == HttpURLConnection.HTTP_NOT_FOUND) {
+            return R.string.error_url;
+        } else if (e.getErrorType() == HttpURLConnection.HTTP_CLIENT_TIMEOUT) {
+            return R.string.error_host;
+        }
+        return R.string.error_notsupported;
     }
 
     @Override
     public void onDestroy() {
         super.onDestroy();
         if (articleView != null) {
-            articleView.destroy();
+            ArticleViewPool.recycle(articleView);
+            articleView = null;
         }
     }
 }
\ No newline at end of file
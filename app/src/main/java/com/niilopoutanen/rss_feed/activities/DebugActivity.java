@@ -7,6 +7,7 @@ import android.view.View;
 import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
@@ -17,12 +18,21 @@ import com.niilopoutanen.rss_feed.common.PreferencesManager;
 import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.database.AppDatabase;
 import com.niilopoutanen.rss_feed.database.AppRepository;
+import com.niilopoutanen.rss_feed.parser.FetchMetrics;
+import com.niilopoutanen.rss_feed.parser.MetricsRecorder;
+import com.niilopoutanen.rss_feed.parser.MetricsReport;
 import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.splash.SplashActivity;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.sql.Date;
 import java.time.Instant;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -81,6 +91,26 @@ public class DebugActivity extends AppCompatActivity {
         });
 
 
+        TextView report = findViewById(R.id.debug_performance_report);
+        findViewById(R.id.debug_performance).setOnClickListener(v -> {
+            List<FetchMetrics> metrics = MetricsRecorder.snapshot();
+            report.setText(metrics.isEmpty() ? getString(R.string.debug_performance_empty) : new MetricsReport(metrics).toText());
+            report.setVisibility(View.VISIBLE);
+        });
+
+        findViewById(R.id.debug_export_metrics).setOnClickListener(v -> {
+            Executor executor = Executors.newSingleThreadExecutor();
+            executor.execute(() -> {
+                File file = new File(getExternalFilesDir(null), "refresh-metrics-" + System.currentTimeMillis() + ".csv");
+                try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+                    new MetricsReport(MetricsRecorder.snapshot()).writeCsv(writer);
+                    runOnUiThread(() -> Toast.makeText(DebugActivity.this, file.getAbsolutePath(), Toast.LENGTH_LONG).show());
+                } catch (IOException e) {
+                    runOnUiThread(() -> Toast.makeText(DebugActivity.this, e.getMessage(), Toast.LENGTH_LONG).show());
+                }
+            });
+        });
+
         findViewById(R.id.debug_clearsources).setOnClickListener(v -> {
             Executor executor = Executors.newSingleThreadExecutor();
             executor.execute(() -> {
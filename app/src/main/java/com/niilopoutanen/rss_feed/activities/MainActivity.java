@@ -25,12 +25,19 @@ import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.common.SeasonTheming;
 import com.niilopoutanen.rss_feed.common.models.Preferences;
 import com.niilopoutanen.rss_feed.database.AppViewModel;
+import com.niilopoutanen.rss_feed.database.DiscoveryRepository;
+import com.niilopoutanen.rss_feed.database.FeedCacheRepository;
+import com.niilopoutanen.rss_feed.database.HealthRepository;
 import com.niilopoutanen.rss_feed.database.compatibility.SourceMigration;
 import com.niilopoutanen.rss_feed.fragments.DiscoverFragment;
 import com.niilopoutanen.rss_feed.fragments.FeedFragment;
 import com.niilopoutanen.rss_feed.fragments.SettingsFragment;
 import com.niilopoutanen.rss_feed.fragments.SourceFragment;
+import com.niilopoutanen.rss_feed.parser.FeedFinder;
+import com.niilopoutanen.rss_feed.parser.IconFinder;
+import com.niilopoutanen.rss_feed.parser.Parser;
 import com.niilopoutanen.rss_feed.splash.SplashActivity;
+import com.niilopoutanen.rss_feed.sync.SyncScheduler;
 
 import java.util.Locale;
 
@@ -148,6 +155,16 @@ public class MainActivity extends AppCompatActivity {
         if(SourceMigration.needed(this)){
             SourceMigration.migrate(this);
         }
+
+        Parser.setCache(new FeedCacheRepository(this));
+        DiscoveryRepository discoveryRepository = new DiscoveryRepository(this);
+        discoveryRepository.prune();
+        FeedFinder.setCache(discoveryRepository);
+        IconFinder.setCache(discoveryRepository);
+        HealthRepository healthRepository = new HealthRepository(this);
+        healthRepository.prune();
+        Parser.setHealthStore(healthRepository);
+        SyncScheduler.start(this);
     }
 
 
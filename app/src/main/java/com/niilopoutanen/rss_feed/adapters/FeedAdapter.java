@@ -7,12 +7,18 @@ import android.view.ViewGroup;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.paging.PagingData;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.ConcatAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 //import com.google.firebase.analytics.FirebaseAnalytics;
 import com.niilopoutanen.rss_feed.common.PreferencesManager;
 import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.common.models.Preferences;
+import com.niilopoutanen.rss_feed.database.PostSearch;
 import com.niilopoutanen.rss_feed.fragments.components.feed.AdItem;
 import com.niilopoutanen.rss_feed.fragments.components.feed.ExtendedHeader;
 import com.niilopoutanen.rss_feed.fragments.components.feed.FeedCard;
@@ -25,12 +31,26 @@ import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 public class FeedAdapter extends RecyclerView.Adapter<FeedItem.ViewHolder> implements MessageBridge {
     private final Context context;
     private final FeedData data = new FeedData();
+    private final PostSearch search;
+    /**
+     * Bumped on the main thread for every query, so results of an older one that were already posted are dropped
+     */
+    private int searchGeneration;
+    private final PostAdapter posts;
+    private final ConcatAdapter adapter;
+    private Consumer<Boolean> orderListener;
+    private final AsyncListDiffer<Object> differ = new AsyncListDiffer<>(this, new ItemCallback());
     public FeedAdapter(Context context){
         this.context = context;
+        this.search = new PostSearch(context);
+        this.posts = new PostAdapter(context);
+        this.adapter = new ConcatAdapter(this, posts);
         data.setHeader(context.getString(R.string.feed_header));
 
         Preferences preferences = PreferencesManager.loadPreferences(context);
@@ -38,12 +58,41 @@ public class FeedAdapter extends RecyclerView.Adapter<FeedItem.ViewHolder> imple
             boolean newestFirst = preferences.s_sorting_method != Preferences.SortingMode.OLDEST_FIRST;
             data.setDirection(newestFirst);
         }
+        submit();
     }
+    /**
+     * @return the header and notices followed by the stored posts, the adapter to show in the list
+     */
+    public ConcatAdapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * Shows the stored posts a page at a time
+     */
+    public void submitPosts(Lifecycle lifecycle, PagingData<Post> pagingData) {
+        posts.submitData(lifecycle, pagingData);
+    }
+
+    /**
+     * @param orderListener called when the user changes the order of the posts, with true if newest come first
+     */
+    public void setOrderListener(Consumer<Boolean> orderListener) {
+        this.orderListener = orderListener;
+    }
+
+    public boolean getDirection() {
+        return data.getDirection();
+    }
+
+    /**
+     * Shows posts that are not stored, like the ones of a feed that has not been added
+     */
     public void update(List<Post> newPosts) {
         if(context == null) return;
         ((Activity)context).runOnUiThread(() -> {
             data.setPosts(newPosts);
-            notifyDataSetChanged();
+            submit();
         });
 
     }
@@ -52,16 +101,25 @@ public class FeedAdapter extends RecyclerView.Adapter<FeedItem.ViewHolder> imple
         if(context == null) return;
         ((Activity)context).runOnUiThread(() -> {
             data.clearNotices();
-            notifyDataSetChanged();
+            submit();
         });
     }
 
     public void notify(String title, String desc) {
         data.addNotice(title, desc);
-        notifyDataSetChanged();
+        submit();
+    }
+
+    /**
+     * Diffs the current items against the shown ones in the background and dispatches only the changes.
+     * Must be called on the main thread.
+     */
+    private void submit() {
+        differ.submitList(data.snapshot());
     }
     public void setHeader(Source header){
         data.setHeader(header);
+        submit();
     }
     @NonNull
     @Override
@@ -90,35 +148,65 @@ public class FeedAdapter extends RecyclerView.Adapter<FeedItem.ViewHolder> imple
 
     @Override
     public void onBindViewHolder(@NonNull FeedItem.ViewHolder holder, int position) {
-        holder.bind(data.get(position));
+        holder.bind(differ.getCurrentList().get(position));
     }
 
     @Override
     public int getItemCount() {
-        return data.count();
+        return differ.getCurrentList().size();
     }
 
     @Override
     public int getItemViewType(int position) {
-        return data.getItemType(position);
+        return FeedData.getType(differ.getCurrentList().get(position));
     }
 
     @Override
     public void onQueryChanged(String query) {
-        data.filter(query);
+        int generation = ++searchGeneration;
+        if(query == null || query.trim().isEmpty()){
+            search.cancel();
+            showResults(null);
+            return;
+        }
+        if(data.hasPosts()){
+            showResults(data.find(query));
+        }
+        else{
+            search.search(query, data.getSourceId(), results -> ((Activity)context).runOnUiThread(() -> {
+                if(generation == searchGeneration){
+                    showResults(results);
+                }
+            }));
+        }
 
         Bundle params = new Bundle();
         params.putString("query", query);
 //        FirebaseAnalytics.getInstance(context).logEvent("search_feed", params);
+    }
 
-        notifyDataSetChanged();
+    /**
+     * Search results replace the stored posts until the search is cleared
+     */
+    private void showResults(List<Post> results){
+        data.setResults(results);
+        if(results != null){
+            adapter.removeAdapter(posts);
+        }
+        else if(!adapter.getAdapters().contains(posts)){
+            adapter.addAdapter(posts);
+        }
+        submit();
     }
 
     @Override
     public void onSortingChanged(boolean newestFirst) {
         data.setDirection(newestFirst);
         notifyDirection(newestFirst);
-        notifyDataSetChanged();
+        if(orderListener != null){
+            orderListener.accept(newestFirst);
+        }
+        submit();
     }
     private void notifyDirection(boolean newestFirst){
         String msg;
@@ -136,4 +224,29 @@ public class FeedAdapter extends RecyclerView.Adapter<FeedItem.ViewHolder> imple
         }
         PreferencesManager.saveEnumPreference(Preferences.SP_SORTING_MODE, Preferences.PREFS_FUNCTIONALITY, sortingMode, context);
     }
+
+    private static class ItemCallback extends DiffUtil.ItemCallback<Object> {
+        @Override
+        public boolean areItemsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof Post && newItem instanceof Post) {
+                return ((Post) oldItem).getKey() == ((Post) newItem).getKey();
+            }
+            if (oldItem instanceof Notice.NoticeData && newItem instanceof Notice.NoticeData) {
+                return Objects.equals(((Notice.NoticeData) oldItem).title, ((Notice.NoticeData) newItem).title);
+            }
+            // There is only one header
+            return oldItem.getClass() == newItem.getClass() && (oldItem instanceof Source || oldItem instanceof String);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Object oldItem, @NonNull Object newItem) {
+            if (oldItem instanceof Post) {
+                return ((Post) oldItem).hasSameContent((Post) newItem);
+            }
+            if (oldItem instanceof Notice.NoticeData) {
+                return Objects.equals(((Notice.NoticeData) oldItem).desc, ((Notice.NoticeData) newItem).desc);
+            }
+            return oldItem.equals(newItem);
+        }
+    }
 }
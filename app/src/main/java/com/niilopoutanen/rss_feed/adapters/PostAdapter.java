@@ -0,0 +1,56 @@
+package com.niilopoutanen.rss_feed.adapters;
+
+import android.content.Context;
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.niilopoutanen.rss_feed.fragments.components.feed.FeedCard;
+import com.niilopoutanen.rss_feed.fragments.components.feed.FeedData;
+import com.niilopoutanen.rss_feed.fragments.components.feed.FeedItem;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+/**
+ * Stored posts of the feed, loaded from the database a page at a time
+ */
+public class PostAdapter extends PagingDataAdapter<Post, FeedItem.ViewHolder> {
+    private final Context context;
+
+    public PostAdapter(Context context) {
+        super(new ItemCallback());
+        this.context = context;
+    }
+
+    @NonNull
+    @Override
+    public FeedItem.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        return new FeedItem.ViewHolder(new FeedCard(context));
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull FeedItem.ViewHolder holder, int position) {
+        Post post = getItem(position);
+        if (post != null) {
+            holder.bind(post);
+        }
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return FeedData.Types.POST;
+    }
+
+    private static class ItemCallback extends DiffUtil.ItemCallback<Post> {
+        @Override
+        public boolean areItemsTheSame(@NonNull Post oldItem, @NonNull Post newItem) {
+            return oldItem.getKey() == newItem.getKey();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Post oldItem, @NonNull Post newItem) {
+            return oldItem.hasSameContent(newItem);
+        }
+    }
+}
@@ -22,15 +22,19 @@ import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.database.AppDatabase;
 import com.niilopoutanen.rss_feed.database.DatabaseThread;
 import com.niilopoutanen.rss_feed.fragments.components.SourceItem;
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
 import com.niilopoutanen.rss_feed.rss.Source;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
 public class SourceAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
     private final RecyclerView recyclerView;
     private List<Source> sources;
+    private final Map<String, FeedHealth> health = new HashMap<>();
     private Context context;
     private Source tempSource;
     private final FragmentManager manager;
@@ -68,6 +72,17 @@ public class SourceAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         notifyDataSetChanged();
     }
 
+    /**
+     * Sources that are being skipped after failures are marked in the list
+     */
+    public void updateHealth(List<FeedHealth> health) {
+        this.health.clear();
+        for (FeedHealth entry : health) {
+            this.health.put(entry.url, entry);
+        }
+        notifyDataSetChanged();
+    }
+
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
         if (sources == null) {
@@ -76,7 +91,7 @@ public class SourceAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
         Source source = sources.get(position);
         if (holder instanceof SourceItem) {
             SourceItem sourceItem = (SourceItem) holder;
-            sourceItem.bindData(source, manager);
+            sourceItem.bindData(source, health.get(source.url), manager);
         }
     }
 
@@ -0,0 +1,59 @@
+package com.niilopoutanen.rss_feed.article;
+
+import android.content.Context;
+
+import com.niilopoutanen.rss_feed.parser.RSSException;
+import com.niilopoutanen.rss_feed.parser.WebUtils;
+
+import net.dankito.readability4j.Article;
+import net.dankito.readability4j.Readability4J;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Turns the page of a post into its readable article content
+ */
+public class ArticleExtractor {
+    /**
+     * Uses the stored article if there is one, otherwise extracts and stores it
+     * @return a document with the article content as its body
+     */
+    public static Document load(Context context, String url) throws RSSException {
+        ArticleStore store = ArticleStore.getInstance(context);
+        String stored = store.get(url);
+        if (stored != null) {
+            return Jsoup.parseBodyFragment(stored, url);
+        }
+
+        Element content = extract(url);
+        store.put(url, content.html());
+
+        // The content moves over from the page, nothing is parsed again
+        Document document = Document.createShell(url);
+        document.body().appendChild(content);
+        return document;
+    }
+
+    /**
+     * Downloads the page and extracts the article from it, blocking the calling thread.
+     * The page is parsed once as HTML and Readability works on that same document.
+     */
+    public static Element extract(String url) throws RSSException {
+        try {
+            Document page = WebUtils.connectHtml(new URL(url));
+            Article article = new Readability4J(url, page).parse();
+            Element content = article.getArticleContent();
+            if (content == null) {
+                throw new RSSException("No article found in " + url);
+            }
+            return content;
+        } catch (IOException e) {
+            throw new RSSException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package com.niilopoutanen.rss_feed.article;
+
+import android.content.Context;
+
+import com.niilopoutanen.rss_feed.common.PreferencesManager;
+import com.niilopoutanen.rss_feed.common.R;
+import com.niilopoutanen.rss_feed.common.models.Preferences;
+import com.niilopoutanen.rss_feed.parser.RSSException;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.jsoup.nodes.Attribute;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeFilter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Builds the HTML shown in ArticleView.
+ * Extraction, sanitising and decoration all work on one document, which is walked once and serialised once.
+ * Call from a background thread.
+ */
+public class ArticleProcessor {
+    /**
+     * Elements that run code, load outside resources or can't be used in the article
+     */
+    private static final Set<String> REMOVED_TAGS = new HashSet<>(Arrays.asList(
+            "script", "noscript", "style", "link", "meta", "base", "form", "input", "button",
+            "select", "textarea", "object", "embed", "applet", "frame", "frameset"
+    ));
+    private static final String[] TRACKERS = {
+            "doubleclick.net",
+            "google-analytics.com",
+            "googletagmanager.com",
+            "facebook.com/tr",
+            "pixel.wp.com",
+            "stats.wp.com",
+            "feeds.feedburner.com/~r",
+            "feedsportal.com",
+            "scorecardresearch.com",
+            "quantserve.com"
+    };
+
+    /**
+     * Values in quotes are replaced in getCSS
+     */
+    private static final String CSS_TEMPLATE =
+            "<style>\n" +
+            "    @font-face {\n" +
+            "        font-family: \"CustomFont\";\n" +
+            "        src: url(\"'$FONTFACE'\");\n" +
+            "        font-weight: normal;\n" +
+            "    }\n" +
+            "\n" +
+            "    @font-face {\n" +
+            "        font-family: \"CustomFont\";\n" +
+            "        src: url(\"'$BOLDFONTFACE'\");\n" +
+            "        font-weight: bold;\n" +
+            "    }\n" +
+            "\n" +
+            "    html,\n" +
+            "    body {\n" +
+            "        width: 100%;\n" +
+            "        margin: 0;\n" +
+            "        box-sizing: border-box;\n" +
+            "        color: '$TEXTCOLOR';\n" +
+            "        background-color: '$BACKGROUNDCOLOR';\n" +
+            "        font-family: \"CustomFont\";\n" +
+            "        font-size: '$FONTSIZE';\n" +
+            "        max-width: 100vw;\n" +
+            "    }\n" +
+            "\n" +
+            "    body {\n" +
+            "        padding: 10px;\n" +
+            "    }\n" +
+            "\n" +
+            "    a {\n" +
+            "        color: '$ACCENTCOLOR';\n" +
+            "        text-decoration: none;\n" +
+            "        font-weight: 600;\n" +
+            "    }\n" +
+            "\n" +
+            "    th,\n" +
+            "    td {\n" +
+            "        border: 2px solid '$TEXTSECONDARY';\n" +
+            "    }\n" +
+            "\n" +
+            "    h1{\n" +
+            "        margin-bottom: 0px;\n" +
+            "        font-size: 1.6rem;\n" +
+            "    }\n" +
+            "    p.author{\n" +
+            "        margin-top: 3px;\n" +
+            "        margin-bottom: 15px;\n" +
+            "        font-size: 1rem;\n" +
+            "        color: '$TEXTSECONDARY';\n" +
+            "    }\n" +
+            "\n" +
+            "    table {\n" +
+            "        border-collapse: collapse;\n" +
+            "        overflow: scroll;\n" +
+            "    }\n" +
+            "\n" +
+            "    iframe {\n" +
+            "        width: 100%;\n" +
+            "        border-radius: 10px;\n" +
+            "        border: none;\n" +
+            "    }\n" +
+            "\n" +
+            "    img {\n" +
+            "        max-width: 100%;\n" +
+            "        height: auto;\n" +
+            "        border-radius: 15px;\n" +
+            "        margin-bottom: 5px;\n" +
+            "        transition: transform 0.3s ease;\n" +
+            "    }\n" +
+            "    img:active{\n" +
+            "        transform: scale(0.95);\n" +
+            "    }\n" +
+            "\n" +
+            "    ul {\n" +
+            "        padding-left: 20px;\n" +
+            "    }\n" +
+            "\n" +
+            "    figure {\n" +
+            "        margin: 0;\n" +
+            "        padding: 0;\n" +
+            "    }\n" +
+            "\n" +
+            "    svg{\n" +
+            "        display: none;\n" +
+            "    }\n" +
+            "\n" +
+            "    blockquote {\n" +
+            "        margin: 0;\n" +
+            "        padding-left: 15px;\n" +
+            "        position: relative;\n" +
+            "    }\n" +
+            "\n" +
+            "    blockquote::before {\n" +
+            "        content: \"\";\n" +
+            "        position: absolute;\n" +
+            "        left: 0;\n" +
+            "        top: 0;\n" +
+            "        width: 5px;\n" +
+            "        height: 100%;\n" +
+            "        background-color: '$ACCENTCOLOR';\n" +
+            "        border-radius: 10px;\n" +
+            "    }\n" +
+            "\n" +
+            "    #rssfeed-categories{\n" +
+            "        display: flex;\n" +
+            "        flex-direction: row;\n" +
+            "        gap: 5px;\n" +
+            "        max-width: 100%;\n" +
+            "        overflow-x: scroll;\n" +
+            "        margin-bottom: 5px;\n" +
+            "    }\n" +
+            "    #rssfeed-categories .category{\n" +
+            "        background-color: '$ELEMENTBACKGROUND';\n" +
+            "        border-radius: 100px;\n" +
+            "        padding: 5px 15px;\n" +
+            "        border: 1px solid '$ELEMENTBORDER';\n" +
+            "        font-size: 0.8rem;\n" +
+            "        white-space: nowrap;\n" +
+            "        color: '$TEXTSECONDARY';\n" +
+            "    }\n" +
+            "    #rssfeed-categories p{\n" +
+            "        margin: 0;\n" +
+            "    }\n" +
+            "    .rssfeed_section{\n" +
+            "        display: flex;\n" +
+            "        flex-direction: column;\n" +
+            "    }\n" +
+            "    .rssfeed-section p{\n" +
+            "        margin: 0;\n" +
+            "        font-size: 12px;\n" +
+            "        margin-bottom: 5px;\n" +
+            "    }\n" +
+            "</style>";
+
+    private static String css;
+    private static String cssVersion;
+
+    /**
+     * @return the article of the post as a complete page, ready to be loaded into ArticleView
+     */
+    public static String process(Context context, Post post) throws RSSException {
+        return render(context, post, ArticleExtractor.load(context, post.link));
+    }
+
+    /**
+     * @return a page that shows the message in place of the article
+     */
+    public static String renderMessage(Context context, Post post, String message) {
+        Document document = Document.createShell("");
+        document.body().appendElement("p").text(message);
+        return render(context, post, document);
+    }
+
+    private static String render(Context context, Post post, Document document) {
+        Preferences preferences = PreferencesManager.loadPreferences(context);
+        document.outputSettings().prettyPrint(false);
+
+        Decorator decorator = new Decorator();
+        document.body().filter(decorator);
+
+        Element title = decorator.title;
+        if (title == null && post.title != null) {
+            title = document.body().prependElement("h1").text(post.title);
+        }
+        if (preferences.s_article_show_categories && !post.getCategories().isEmpty()) {
+            addCategories(document, title, post);
+        }
+        document.head().append(getCSS(context, preferences));
+
+        return document.outerHtml();
+    }
+
+    private static void addCategories(Document document, Element title, Post post) {
+        Element container = new Element("div");
+        container.id("rssfeed-categories");
+        for (String category : post.getCategories()) {
+            container.appendChild(createCategory(category));
+        }
+
+        if (title != null) {
+            title.after(createSection(null, container));
+
+            Element author = new Element("p");
+            author.text(post.author != null ? post.author : "");
+            author.addClass("author");
+            title.after(author);
+        } else {
+            document.body().prependChild(createSection(null, container));
+        }
+    }
+
+    /**
+     * Removes code and trackers, and prepares images and embeds for the article view, in a single walk of the document
+     */
+    private static class Decorator implements NodeFilter {
+        /**
+         * First heading of the article, used as its title
+         */
+        private Element title;
+
+        @Override
+        public FilterResult head(Node node, int depth) {
+            if (node instanceof Comment) return FilterResult.REMOVE;
+            if (!(node instanceof Element)) return FilterResult.CONTINUE;
+
+            Element element = (Element) node;
+            String tag = element.normalName();
+            if (REMOVED_TAGS.contains(tag)) return FilterResult.REMOVE;
+            removeScripts(element);
+
+            switch (tag) {
+                case "h1":
+                    if (title == null) title = element;
+                    break;
+                case "img":
+                    if (isTracker(element)) return FilterResult.REMOVE;
+                    element.attr("onclick", "event.preventDefault(); Android.onImageClick(this.src);");
+                    element.attr("onerror", "this.style.display='none'");
+                    break;
+                case "iframe":
+                    if (element.hasAttr("data-src")) {
+                        element.attr("src", element.attr("data-src"));
+                        element.removeAttr("data-src");
+                    }
+                    if (isTracker(element)) return FilterResult.REMOVE;
+                    break;
+            }
+            return FilterResult.CONTINUE;
+        }
+
+        @Override
+        public FilterResult tail(Node node, int depth) {
+            return FilterResult.CONTINUE;
+        }
+
+        /**
+         * Drops event handlers and javascript: links
+         */
+        private static void removeScripts(Element element) {
+            if (element.attributesSize() == 0) return;
+            List<String> removed = new ArrayList<>();
+            for (Attribute attribute : element.attributes()) {
+                String key = attribute.getKey().toLowerCase(Locale.ROOT);
+                String value = attribute.getValue().trim().toLowerCase(Locale.ROOT);
+                if (key.startsWith("on") || value.startsWith("javascript:")) {
+                    removed.add(attribute.getKey());
+                }
+            }
+            for (String key : removed) {
+                element.removeAttr(key);
+            }
+        }
+
+        /**
+         * @return true for tracking pixels and known tracking hosts
+         */
+        private static boolean isTracker(Element element) {
+            String width = element.attr("width").trim();
+            String height = element.attr("height").trim();
+            if ((width.equals("0") || width.equals("1")) && (height.equals("0") || height.equals("1"))) {
+                return true;
+            }
+
+            String src = element.attr("src");
+            for (String tracker : TRACKERS) {
+                if (src.contains(tracker)) return true;
+            }
+            return false;
+        }
+    }
+
+    private static Element createCategory(String name){
+        Element category = new Element("div");
+        category.addClass("category");
+
+        Element text = new Element("p");
+        text.text(name);
+
+        category.appendChild(text);
+
+        return category;
+    }
+
+    /**
+     * The filled in stylesheet is kept until one of the values it depends on changes
+     */
+    private static synchronized String getCSS(Context context, Preferences preferences) {
+        String accentColor = formatColor(PreferencesManager.getAccentColor(context));
+        String backgroundColor = formatColor(context.getColor(R.color.windowBg));
+        String elementBackground = formatColor(context.getColor(R.color.element));
+        String elementBorder = formatColor(context.getColor(R.color.element_border));
+        String textColor = formatColor(context.getColor(R.color.textPrimary));
+        String textSecondary = formatColor(context.getColor(R.color.textSecondary));
+        String fontSize = String.valueOf(preferences.s_fontsize);
+
+        String version = preferences.s_font + "|" + fontSize + "|" + accentColor + "|" + backgroundColor + "|"
+                + elementBackground + "|" + elementBorder + "|" + textColor + "|" + textSecondary;
+        if (version.equals(cssVersion)) {
+            return css;
+        }
+
+        String fontFace = "file:///android_res";
+        String boldFontFace = "file:///android_res";
+
+        switch (preferences.s_font) {
+            case INTER:
+                fontFace += "/font/inter_regular.ttf";
+                boldFontFace += "/font/inter_bold.ttf";
+                break;
+            case POPPINS:
+                fontFace += "/font/poppins_regular.ttf";
+                boldFontFace += "/font/poppins_bold.ttf";
+                break;
+            case ROBOTO_MONO:
+                fontFace += "/font/roboto_mono_regular.ttf";
+                boldFontFace += "/font/roboto_mono_bold.ttf";
+                break;
+            case ROBOTO_SERIF:
+                fontFace += "/font/roboto_serif_regular.ttf";
+                boldFontFace += "/font/roboto_serif_bold.ttf";
+                break;
+        }
+        String css = CSS_TEMPLATE.replace("'$FONTFACE'", fontFace);
+        css = css.replace("'$FONTSIZE'", fontSize);
+        css = css.replace("'$BOLDFONTFACE'", boldFontFace);
+
+        css = css.replace("'$ACCENTCOLOR'", accentColor);
+        css = css.replace("'$TEXTCOLOR'", textColor);
+        css = css.replace("'$TEXTSECONDARY'", textSecondary);
+        css = css.replace("'$BACKGROUNDCOLOR'", backgroundColor);
+        css = css.replace("'$ELEMENTBACKGROUND'", elementBackground);
+        css = css.replace("'$ELEMENTBORDER'", elementBorder);
+
+        ArticleProcessor.css = css;
+        cssVersion = version;
+        return css;
+    }
+
+    private static String formatColor(int colorID) {
+        int red = (colorID >> 16) & 0xFF;
+        int green = (colorID >> 8) & 0xFF;
+        int blue = colorID & 0xFF;
+
+        return String.format(Locale.US, "rgb(%d, %d, %d)", red, green, blue);
+    }
+
+    private static Element createSection(String title, Element child) {
+        Element section = new Element("div");
+        section.addClass("rssfeed-section");
+
+        if (title != null) {
+            Element header = new Element("p");
+            header.append(title);
+            section.appendChild(header);
+        }
+
+        section.appendChild(child);
+
+        return section;
+    }
+}
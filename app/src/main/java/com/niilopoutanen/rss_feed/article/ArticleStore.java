@@ -0,0 +1,141 @@
+package com.niilopoutanen.rss_feed.article;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+/**
+ * Extracted articles stored on disk by post link, so that they open without network.
+ * Reading an article marks it as used, and the least recently used ones are removed once the store grows past its limit.
+ */
+public class ArticleStore {
+    private static final String DIRECTORY = "articles";
+    private static final String EXTENSION = ".html";
+    private static final long MAX_SIZE = 20 * 1024 * 1024;
+    /**
+     * Trimming goes a bit below the limit so that every new article doesn't trigger it again
+     */
+    private static final long TRIMMED_SIZE = MAX_SIZE * 9 / 10;
+
+    private static ArticleStore instance;
+
+    private final File directory;
+    private long size = -1;
+
+    private ArticleStore(Context context) {
+        directory = new File(context.getApplicationContext().getCacheDir(), DIRECTORY);
+    }
+
+    public static synchronized ArticleStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ArticleStore(context);
+        }
+        return instance;
+    }
+
+    /**
+     * @return the stored article, or null if there is none
+     */
+    public synchronized String get(String link) {
+        File file = getFile(link);
+        if (file == null || !file.isFile()) return null;
+
+        try (InputStream stream = new FileInputStream(file)) {
+            byte[] content = new byte[(int) file.length()];
+            int length = 0;
+            int read;
+            while (length < content.length && (read = stream.read(content, length, content.length - length)) != -1) {
+                length += read;
+            }
+            file.setLastModified(System.currentTimeMillis());
+            return new String(content, 0, length, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public synchronized boolean contains(String link) {
+        File file = getFile(link);
+        return file != null && file.isFile();
+    }
+
+    public synchronized void put(String link, String content) {
+        File file = getFile(link);
+        if (file == null || content == null) return;
+        if (!directory.isDirectory() && !directory.mkdirs()) return;
+
+        // Written next to the final file and renamed, so a half written article is never read
+        File temp = new File(directory, file.getName() + ".tmp");
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        try (OutputStream stream = new FileOutputStream(temp)) {
+            stream.write(bytes);
+        } catch (IOException e) {
+            temp.delete();
+            return;
+        }
+
+        long previous = file.length();
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        size = getSize() - previous + bytes.length;
+        if (size > MAX_SIZE) {
+            trim();
+        }
+    }
+
+    /**
+     * Removes the least recently used articles until the store is below its limit
+     */
+    private void trim() {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (size <= TRIMMED_SIZE) break;
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    private long getSize() {
+        if (size >= 0) return size;
+        long total = 0;
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                total += file.length();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Links are hashed so that any link makes a valid file name
+     */
+    private File getFile(String link) {
+        if (link == null || link.isEmpty()) return null;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(link.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + EXTENSION.length());
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return new File(directory, name.append(EXTENSION).toString());
+        } catch (NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+}
@@ -26,8 +26,8 @@ import com.google.android.material.transition.MaterialSharedAxis;
 //import com.google.firebase.analytics.FirebaseAnalytics;
 import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.database.AppViewModel;
-import com.niilopoutanen.rss_feed.parser.IconFinder;
-import com.niilopoutanen.rss_feed.parser.Parser;
+import com.niilopoutanen.rss_feed.parser.RSSException;
+import com.niilopoutanen.rss_feed.parser.SourceLoader;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 import java.util.concurrent.Executor;
@@ -79,46 +79,40 @@ public class AddSourceFragment extends Fragment {
         userInput.url = feedUrl.getText().toString();
         Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(() -> {
-            if (Parser.isValid(userInput)) {
-                Parser parser = new Parser();
-                parser.load(userInput.url);
-
-                if(parser.source == null){
-                    activity.runOnUiThread(() -> {
-                        showError(context.getString(R.string.error_adding_source));
-                    });
-                    return;
-                }
-                //set id if it exists
-                if(source != null){
-                    parser.source.id = source.id;
-                }
+            Source loaded;
+            try {
+                loaded = SourceLoader.load(userInput.url);
+            } catch (RSSException e) {
+                loaded = null;
+            }
 
-                source = parser.source;
-                source.url = userInput.url;
+            if (loaded == null) {
+                activity.runOnUiThread(() -> {
+                    showError(context.getString(R.string.error_adding_source));
+                });
+                return;
+            }
+            //keep the id and the folder of an edited source
+            if(source != null){
+                loaded.id = source.id;
+                loaded.folder = source.folder;
+            }
 
-                //set name if not empty
-                if(userInput.title != null && !userInput.title.isEmpty()){
-                    source.title = userInput.title;
-                }
+            source = loaded;
 
-                source.visible = showInFeed.isChecked();
+            //set name if not empty
+            if(userInput.title != null && !userInput.title.isEmpty()){
+                source.title = userInput.title;
+            }
 
-                if (source.image == null || source.image.isEmpty()) {
-                    source.image = IconFinder.get(source.url);
-                }
+            source.visible = showInFeed.isChecked();
 
-                save(source);
+            save(source);
 
-                activity.runOnUiThread(() -> {
-                    progressBar.setVisibility(View.GONE);
-                    closeFragment();
-                });
-            } else {
-                activity.runOnUiThread(() -> {
-                    showError(context.getString(R.string.error_adding_source));
-                });
-            }
+            activity.runOnUiThread(() -> {
+                progressBar.setVisibility(View.GONE);
+                closeFragment();
+            });
         });
 
     }
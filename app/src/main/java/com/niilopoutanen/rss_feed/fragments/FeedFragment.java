@@ -15,7 +15,11 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProvider;
+import androidx.paging.PagingData;
+import androidx.paging.PagingLiveData;
 import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
@@ -28,9 +32,12 @@ import com.niilopoutanen.rss_feed.common.PreferencesManager;
 import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.database.AppRepository;
 import com.niilopoutanen.rss_feed.database.AppViewModel;
+import com.niilopoutanen.rss_feed.fragments.components.ArticleViewPool;
+import com.niilopoutanen.rss_feed.parser.FeedListener;
 import com.niilopoutanen.rss_feed.parser.Parser;
 import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
+import com.niilopoutanen.rss_feed.sync.SyncScheduler;
 
 import java.net.HttpURLConnection;
 import java.util.ArrayList;
@@ -47,6 +54,9 @@ public class FeedFragment extends Fragment {
     private List<Source> sources = new ArrayList<>();
     private AppViewModel appViewModel;
     private FEED_TYPE type = FEED_TYPE.TYPE_MULTI;
+    private LiveData<PagingData<Post>> pagedPosts;
+    private int pagedSourceId;
+    private boolean pagedNewestFirst;
 
     public FeedFragment() {}
 
@@ -101,32 +111,114 @@ public class FeedFragment extends Fragment {
     public void update() {
         if (!isValid(sources)) return;
         swipeRefreshLayout.setRefreshing(true);
+        if(!isStored()){
+            refresh(false);
+            return;
+        }
+
+        // Show what was stored on the last refresh before going to the network
+        showStored();
+        repository.countPosts(getSourceId(), count -> refresh(count > 0));
+
+        Bundle params = new Bundle();
+        params.putString("source_count", String.valueOf(sources.size()));
+//        FirebaseAnalytics.getInstance(context).logEvent("load_feed", params);
+    }
+
+    /**
+     * Pages the stored posts into the feed. New posts show up as soon as they are stored.
+     */
+    private void showStored() {
+        int sourceId = getSourceId();
+        boolean newestFirst = adapter.getDirection();
+        if(pagedPosts != null && pagedSourceId == sourceId && pagedNewestFirst == newestFirst) return;
+
+        if(pagedPosts != null){
+            pagedPosts.removeObservers(getViewLifecycleOwner());
+        }
+        Lifecycle lifecycle = getViewLifecycleOwner().getLifecycle();
+        pagedPosts = PagingLiveData.cachedIn(repository.getPagedPosts(sourceId, newestFirst), lifecycle);
+        pagedSourceId = sourceId;
+        pagedNewestFirst = newestFirst;
+        pagedPosts.observe(getViewLifecycleOwner(), posts -> adapter.submitPosts(lifecycle, posts));
+    }
+
+    /**
+     * @return false if the feed shows a source that has not been added, so its posts are not stored
+     */
+    private boolean isStored() {
+        return type == FEED_TYPE.TYPE_MULTI || sources.get(0).id != 0;
+    }
+
+    /**
+     * @return the source the feed shows, or 0 if it shows every source
+     */
+    private int getSourceId() {
+        return type == FEED_TYPE.TYPE_SINGLE ? sources.get(0).id : 0;
+    }
+
+    private void refresh(boolean hasPosts) {
+        if (!isConnected()) {
+            ((Activity) context).runOnUiThread(() -> {
+                if(hasPosts){
+                    swipeRefreshLayout.setRefreshing(false);
+                }
+                else{
+                    showError(1);
+                }
+            });
+            return;
+        }
+
         Executor executor = Executors.newSingleThreadExecutor();
         executor.execute(() -> {
-            if(appViewModel.getPostCache() != null){
-                adapter.update(appViewModel.getPostCache());
-            }
-            List<Post> posts;
             if(type == FEED_TYPE.TYPE_SINGLE){
                 Parser parser = new Parser();
                 parser.load(sources.get(0).url);
-                posts = new ArrayList<>(parser.posts);
-            }
-            else{
-                posts = Parser.loadMultiple(sources);
-            }
-            if(appViewModel.isCacheOutdated(posts)){
-                ((Activity) context).runOnUiThread(() -> {
-                    appViewModel.setPostCache(posts);
-                    adapter.update(posts);
-                });
+                if(parser.source == null && parser.getError() != null){
+                    int errorType = parser.getError().getErrorType();
+                    ((Activity) context).runOnUiThread(() -> {
+                        if(!hasPosts) showError(errorType);
+                        swipeRefreshLayout.setRefreshing(false);
+                    });
+                    return;
+                }
+                if(!isStored()){
+                    adapter.update(new ArrayList<>(parser.posts));
+                }
+                // Posts restored for a skipped feed are already stored
+                else if(appViewModel.isChanged(sources.get(0), parser.getError() == null ? parser.posts : null)){
+                    repository.insertPosts(sources.get(0), parser.posts);
+                }
+                onLoaded();
+                return;
             }
-            swipeRefreshLayout.setRefreshing(false);
+
+            Parser.loadMultiple(sources, new FeedListener() {
+                @Override
+                public void onLoaded(Source source, List<Post> batch) {
+                    // Failed and unchanged sources are already stored as they are
+                    if(!appViewModel.isChanged(source, batch)) return;
+                    repository.insertPosts(source, batch);
+                }
+
+                @Override
+                public void onComplete() {
+                    FeedFragment.this.onLoaded();
+                }
+            });
         });
+    }
 
-        Bundle params = new Bundle();
-        params.putString("source_count", String.valueOf(sources.size()));
-//        FirebaseAnalytics.getInstance(context).logEvent("load_feed", params);
+    private void onLoaded(){
+        adapter.update();
+        if(isStored()){
+            SyncScheduler.prefetch(context);
+        }
+        ((Activity) context).runOnUiThread(() -> {
+            swipeRefreshLayout.setRefreshing(false);
+            ArticleViewPool.warm(context);
+        });
     }
 
     private void init() {
@@ -185,7 +277,10 @@ public class FeedFragment extends Fragment {
 
 
         adapter = new FeedAdapter(context);
-        recyclerView.setAdapter(adapter);
+        adapter.setOrderListener(newestFirst -> {
+            if(!sources.isEmpty() && isStored()) showStored();
+        });
+        recyclerView.setAdapter(adapter.getAdapter());
 
         final int columns = getResources().getInteger(R.integer.feed_columns);
         GridLayoutManager manager = new GridLayoutManager(rootView.getContext(), columns);
@@ -210,23 +305,20 @@ public class FeedFragment extends Fragment {
             showError(0);
             return false;
         }
-        if (!isAdded()) {
-            return false;
-        }
+        return isAdded();
+    }
+
+    private boolean isConnected() {
         ConnectivityManager connectionManager = context.getSystemService(ConnectivityManager.class);
         NetworkInfo currentNetwork = connectionManager.getActiveNetworkInfo();
-        if (currentNetwork == null || !currentNetwork.isConnected()) {
-            showError(1);
-            return false;
-        } else {
-            return true;
-        }
+        return currentNetwork != null && currentNetwork.isConnected();
     }
 
     private void showError(int errorCode) {
 
         switch (errorCode) {
             case 429:
+            case HttpURLConnection.HTTP_UNAVAILABLE:
                 adapter.notify(context.getString(R.string.error_too_many_requests), context.getString(R.string.error_too_many_requests_msg));
                 break;
             case 0:
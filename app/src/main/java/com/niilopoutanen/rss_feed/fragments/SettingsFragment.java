@@ -84,8 +84,8 @@ import com.niilopoutanen.rss_feed.rss.Opml;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 public class SettingsFragment extends Fragment {
 
@@ -121,25 +121,23 @@ public class SettingsFragment extends Fragment {
                     repository.getAllSources().observe(SettingsFragment.this.getViewLifecycleOwner(), new Observer<List<Source>>() {
                         @Override
                         public void onChanged(List<Source> sources) {
-                            String content = Opml.encode(sources);
                             Intent data = result.getData();
                             if (data == null) return;
 
                             Uri uri = data.getData();
                             if (uri == null) return;
 
-                            try {
-                                OutputStream outputStream = context.getContentResolver().openOutputStream(uri);
-                                if (outputStream != null) {
-                                    outputStream.write(content.getBytes());
-                                    outputStream.close();
-                                    Toast.makeText(context, getResources().getQuantityString(com.niilopoutanen.rss_feed.common.R.plurals.exported_sources, sources.size(), sources.size()), Toast.LENGTH_SHORT).show();
-                                    repository.getAllSources().removeObserver(this);
+                            repository.getAllSources().removeObserver(this);
+                            Activity activity = requireActivity();
+                            Executors.newSingleThreadExecutor().execute(() -> {
+                                try {
+                                    Opml.write(sources, uri, context);
+                                    activity.runOnUiThread(() -> Toast.makeText(context, context.getResources().getQuantityString(com.niilopoutanen.rss_feed.common.R.plurals.exported_sources, sources.size(), sources.size()), Toast.LENGTH_SHORT).show());
+                                } catch (IOException e) {
+                                    activity.runOnUiThread(() -> Toast.makeText(context, R.string.error_export_sources, Toast.LENGTH_SHORT).show());
+//                                    FirebaseCrashlytics.getInstance().recordException(e);
                                 }
-                            } catch (IOException e) {
-                                Toast.makeText(context, R.string.error_export_sources, Toast.LENGTH_SHORT).show();
-//                                FirebaseCrashlytics.getInstance().recordException(e);
-                            }
+                            });
                         }
                     });
 
@@ -24,6 +24,7 @@ import com.niilopoutanen.rss_feed.common.PreferencesManager;
 import com.niilopoutanen.rss_feed.common.R;
 import com.niilopoutanen.rss_feed.common.models.Preferences;
 import com.niilopoutanen.rss_feed.database.AppViewModel;
+import com.niilopoutanen.rss_feed.database.HealthRepository;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 public class SourceFragment extends Fragment {
@@ -67,6 +68,11 @@ public class SourceFragment extends Fragment {
                 adapter.updateSources(sources);
             }
         });
+        new HealthRepository(context).getAll().observe(getViewLifecycleOwner(), health -> {
+            if (adapter != null) {
+                adapter.updateHealth(health);
+            }
+        });
 
 
         ViewCompat.setOnApplyWindowInsetsListener(rootView.findViewById(R.id.sources_container), (v, windowInsets) -> {
@@ -0,0 +1,78 @@
+package com.niilopoutanen.rss_feed.fragments.components;
+
+import static com.niilopoutanen.rss_feed.common.models.Preferences.PREFS_FUNCTIONALITY;
+import static com.niilopoutanen.rss_feed.common.models.Preferences.SP_ARTICLESINBROWSER;
+import static com.niilopoutanen.rss_feed.common.models.Preferences.SP_ARTICLESINBROWSER_DEFAULT;
+
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.os.Looper;
+import android.view.ViewGroup;
+
+import com.niilopoutanen.rss_feed.common.PreferencesManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Keeps a few initialised ArticleViews around, so opening an article doesn't wait for a WebView to be created.
+ * Views are created on top of the application context and moved to the activity that uses them.
+ * Use from the main thread only.
+ */
+public class ArticleViewPool {
+    private static final int SIZE = 2;
+    private static final Deque<ArticleView> pool = new ArrayDeque<>();
+    private static boolean warming;
+
+    /**
+     * Fills the pool one view at a time whenever the main thread is idle
+     */
+    public static void warm(Context context) {
+        if (warming || pool.size() >= SIZE) return;
+        if (PreferencesManager.getBooleanPreference(SP_ARTICLESINBROWSER, PREFS_FUNCTIONALITY, SP_ARTICLESINBROWSER_DEFAULT, context)) return;
+
+        Context appContext = context.getApplicationContext();
+        warming = true;
+        Looper.myQueue().addIdleHandler(() -> {
+            if (pool.size() < SIZE) {
+                pool.push(create(appContext));
+            }
+            warming = pool.size() < SIZE;
+            return warming;
+        });
+    }
+
+    /**
+     * @return a pooled view attached to the context, or a new one if the pool is empty
+     */
+    public static ArticleView obtain(Context context) {
+        ArticleView view = pool.poll();
+        if (view == null) {
+            view = create(context.getApplicationContext());
+        }
+        ((MutableContextWrapper) view.getContext()).setBaseContext(context);
+        return view;
+    }
+
+    /**
+     * Detaches the view from its activity and keeps it for the next article, or destroys it if the pool is full
+     */
+    public static void recycle(ArticleView view) {
+        if (view.getParent() instanceof ViewGroup) {
+            ((ViewGroup) view.getParent()).removeView(view);
+        }
+        MutableContextWrapper context = (MutableContextWrapper) view.getContext();
+        context.setBaseContext(context.getApplicationContext());
+
+        if (pool.size() >= SIZE) {
+            view.destroy();
+            return;
+        }
+        view.reset();
+        pool.push(view);
+    }
+
+    private static ArticleView create(Context context) {
+        return new ArticleView(new MutableContextWrapper(context));
+    }
+}
@@ -5,6 +5,7 @@ import android.content.Intent;
 import android.content.res.ColorStateList;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
+import android.text.format.DateUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -26,6 +27,7 @@ import com.niilopoutanen.rss_feed.common.models.FeedResult;
 import com.niilopoutanen.rss_feed.common.models.Preferences;
 import com.niilopoutanen.rss_feed.database.AppRepository;
 import com.niilopoutanen.rss_feed.fragments.AddSourceFragment;
+import com.niilopoutanen.rss_feed.rss.FeedHealth;
 import com.niilopoutanen.rss_feed.rss.Source;
 
 public class SourceItem extends RecyclerView.ViewHolder {
@@ -60,9 +62,19 @@ public class SourceItem extends RecyclerView.ViewHolder {
         return new SourceItem(view, preferences, context);
     }
 
-    public void bindData(Source source, FragmentManager manager) {
+    /**
+     * @param health may be null
+     */
+    public void bindData(Source source, FeedHealth health, FragmentManager manager) {
         title.setText(source.title);
-        desc.setVisibility(View.GONE);
+        if (health != null && health.isSkipped(System.currentTimeMillis())) {
+            String time = DateUtils.formatDateTime(context, health.blockedUntil, DateUtils.FORMAT_SHOW_TIME | DateUtils.FORMAT_SHOW_DATE);
+            desc.setText(context.getString(R.string.source_skipped, time));
+            desc.setVisibility(View.VISIBLE);
+        }
+        else {
+            desc.setVisibility(View.GONE);
+        }
         icon.setResource(source.image);
         icon.setName(source.title);
 
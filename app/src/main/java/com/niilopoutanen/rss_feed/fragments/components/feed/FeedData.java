@@ -1,5 +1,6 @@
 package com.niilopoutanen.rss_feed.fragments.components.feed;
 
+import com.niilopoutanen.rss_feed.parser.PostMerge;
 import com.niilopoutanen.rss_feed.rss.Post;
 import com.niilopoutanen.rss_feed.rss.Source;
 
@@ -9,76 +10,106 @@ import java.util.List;
 
 public class FeedData{
     private List<Post> posts = new ArrayList<>();
-    private List<Post> filteredPosts = new ArrayList<>();
+    private List<Post> results;
     private final List<Notice.NoticeData> notices = new ArrayList<>();
     private Source sourceHeader;
     private String header;
     private boolean newestFirst = true;
 
-    public void filter(String query){
-        List<Post> filteredList = new ArrayList<>();
+    /**
+     * Shows the search results instead of the feed, in the order they are given
+     * @param results matching posts, or null to show the whole feed again
+     */
+    public void setResults(List<Post> results){
+        this.results = results;
+    }
 
-        if(query == null || query.length() == 0){
-            filteredList.addAll(posts);
-        }
-        else{
-            for (Post post : posts) {
-                if (post.title.toLowerCase().contains(query.toLowerCase())) {
-                    filteredList.add(post);
-                }
+    /**
+     * @return the source the feed shows, or 0 if it shows every source
+     */
+    public int getSourceId(){
+        return sourceHeader != null ? sourceHeader.id : 0;
+    }
+
+    /**
+     * @return true if the feed shows posts that are held in memory instead of stored ones
+     */
+    public boolean hasPosts(){
+        return !posts.isEmpty();
+    }
+
+    /**
+     * Searches the posts held in memory. Stored posts are searched from the database instead.
+     */
+    public List<Post> find(String query){
+        String lowerQuery = query.toLowerCase();
+        List<Post> matches = new ArrayList<>();
+        for(Post post : posts){
+            if(contains(post.title, lowerQuery) || contains(post.description, lowerQuery) || contains(post.author, lowerQuery)){
+                matches.add(post);
             }
         }
-        filteredPosts = filteredList;
-        sort();
+        return matches;
+    }
+
+    private static boolean contains(String text, String lowerQuery){
+        return text != null && text.toLowerCase().contains(lowerQuery);
     }
 
-    private void sort(){
-        if(newestFirst){
-            Collections.sort(filteredPosts);
+    /**
+     * @return the items currently shown, header first. Notices replace the posts while there are any.
+     */
+    public List<Object> snapshot(){
+        List<Object> items = new ArrayList<>(getHeaderCount() + Math.max(notices.size(), posts.size()));
+        if(sourceHeader != null){
+            items.add(sourceHeader);
         }
-        else{
-            Collections.sort(filteredPosts);
-            Collections.reverse(filteredPosts);
+        else if(header != null){
+            items.add(header);
         }
-    }
-    public int count(){
-        int count;
+
         if(!notices.isEmpty()){
-            count = notices.size();
+            items.addAll(notices);
+        }
+        else if(results != null){
+            items.addAll(results);
+        }
+        else if(newestFirst){
+            items.addAll(posts);
         }
         else{
-            count = filteredPosts.size();
+            for(int i = posts.size() - 1; i >= 0; i--){
+                items.add(posts.get(i));
+            }
         }
+        return items;
+    }
 
-        int headerCount = 0;
+    private int getHeaderCount(){
         if(sourceHeader != null || header != null){
-            headerCount = 1;
+            return 1;
         }
-        return count + headerCount;
+        return 0;
     }
     public void setDirection(boolean newestFirst){
         this.newestFirst = newestFirst;
-        sort();
     }
     public void changeDirection(){
         this.newestFirst = !newestFirst;
-        sort();
     }
     public boolean getDirection(){
         return this.newestFirst;
     }
+    /**
+     * Posts are kept newest first, the other direction is shown by reading them backwards
+     */
     public void setPosts(List<Post> posts){
         if(posts == null) return;
-        this.posts = new ArrayList<>(posts);
-        this.filteredPosts = new ArrayList<>(this.posts);
-        if(!newestFirst){
-            Collections.reverse(filteredPosts);
-        }
+        this.posts = PostMerge.merge(Collections.singletonList(posts));
         this.clearNotices();
     }
     public void clearPosts(){
         this.posts.clear();
-        this.filteredPosts.clear();
     }
     public void addNotice(String title, String desc){
         if (title == null || desc == null) return;
@@ -101,31 +132,7 @@ public class FeedData{
         this.sourceHeader = header;
         this.header = null;
     }
-    public Object get(int index){
-        if (index == 0){
-            if(sourceHeader != null){
-                return sourceHeader;
-            }
-            else if(header != null){
-                return header;
-            }
-        }
-        else{
-            index--;
-            if(!notices.isEmpty() && notices.size() > index){
-                return notices.get(index);
-            }
-            else if(filteredPosts.size() > index){
-                return filteredPosts.get(index);
-            }
-        }
-
-        return null;
-    }
-
-    public int getItemType(int index) {
-        Object item = get(index);
-
+    public static int getType(Object item) {
         if (item instanceof Source) {
             return Types.HEADER_EXTENDED;
         }
@@ -142,9 +149,6 @@ public class FeedData{
         return -1;
     }
 
-
-
-
     public static class Types{
         public static final int HEADER = 0;
         public static final int HEADER_EXTENDED = 1;
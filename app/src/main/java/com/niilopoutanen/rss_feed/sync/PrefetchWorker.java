@@ -0,0 +1,69 @@
+package com.niilopoutanen.rss_feed.sync;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.niilopoutanen.rss_feed.article.ArticleExtractor;
+import com.niilopoutanen.rss_feed.article.ArticleStore;
+import com.niilopoutanen.rss_feed.common.PreferencesManager;
+import com.niilopoutanen.rss_feed.database.SyncRepository;
+import com.niilopoutanen.rss_feed.parser.FetchScheduler;
+import com.niilopoutanen.rss_feed.rss.Post;
+
+import org.jsoup.nodes.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Extracts the newest articles that haven't been opened or prefetched yet, so that they open instantly and offline
+ */
+public class PrefetchWorker extends Worker {
+    private static final int ARTICLE_COUNT = 20;
+
+    public PrefetchWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Context context = getApplicationContext();
+        // Articles opened in the browser are never read from the store
+        if (PreferencesManager.loadPreferences(context).s_articlesinbrowser) {
+            return Result.success();
+        }
+
+        ArticleStore store = ArticleStore.getInstance(context);
+        List<Post> posts = new SyncRepository(context).getLatestPosts(ARTICLE_COUNT);
+
+        FetchScheduler scheduler = FetchScheduler.getInstance();
+        List<Future<Document>> tasks = new ArrayList<>();
+        for (Post post : posts) {
+            if (store.contains(post.link)) continue;
+            tasks.add(scheduler.submit(post.link, () -> ArticleExtractor.load(context, post.link)));
+        }
+
+        for (Future<Document> task : tasks) {
+            if (isStopped()) {
+                task.cancel(true);
+                continue;
+            }
+            try {
+                task.get();
+            } catch (ExecutionException | CancellationException e) {
+                // Extracted when the article is opened instead
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Result.success();
+            }
+        }
+        return Result.success();
+    }
+}
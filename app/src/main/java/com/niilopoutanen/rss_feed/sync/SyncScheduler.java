@@ -0,0 +1,71 @@
+package com.niilopoutanen.rss_feed.sync;
+
+import android.content.Context;
+
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a single background sync queued for the time the next source becomes due,
+ * and a single article prefetch queued after new posts have been stored
+ */
+public class SyncScheduler {
+    private static final String WORK_NAME = "sync";
+    private static final String PREFETCH_WORK_NAME = "prefetch";
+    /**
+     * Shortest time between two syncs, the same as WorkManager's limit for periodic work
+     */
+    public static final long MIN_DELAY = TimeUnit.MINUTES.toMillis(15);
+
+    /**
+     * Queues a sync unless one is already queued
+     */
+    public static void start(Context context) {
+        enqueue(context, MIN_DELAY, ExistingWorkPolicy.KEEP);
+    }
+
+    /**
+     * @param nextCheck time the next source is due, or null if there is nothing to sync
+     */
+    public static void schedule(Context context, Long nextCheck) {
+        if (nextCheck == null) return;
+        long delay = Math.max(MIN_DELAY, nextCheck - System.currentTimeMillis());
+        // Appended so that scheduling from the running sync doesn't cancel it
+        enqueue(context, delay, ExistingWorkPolicy.APPEND_OR_REPLACE);
+    }
+
+    /**
+     * Queues extracting the newest articles for offline reading, to run once on an unmetered network
+     */
+    public static void prefetch(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(PrefetchWorker.class)
+                .setConstraints(constraints)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(PREFETCH_WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    private static void enqueue(Context context, long delay, ExistingWorkPolicy policy) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .setRequiresBatteryNotLow(true)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(SyncWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(delay, TimeUnit.MILLISECONDS)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, policy, request);
+    }
+}
@@ -0,0 +1,89 @@
+package com.niilopoutanen.rss_feed.sync;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.niilopoutanen.rss_feed.database.FeedCacheRepository;
+import com.niilopoutanen.rss_feed.database.HealthRepository;
+import com.niilopoutanen.rss_feed.database.SyncRepository;
+import com.niilopoutanen.rss_feed.parser.FetchScheduler;
+import com.niilopoutanen.rss_feed.parser.Parser;
+import com.niilopoutanen.rss_feed.parser.SyncPlanner;
+import com.niilopoutanen.rss_feed.rss.Source;
+import com.niilopoutanen.rss_feed.rss.SyncState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Fetches the sources that are due and stores their posts, then schedules itself for the next source that becomes due
+ */
+public class SyncWorker extends Worker {
+    public SyncWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        SyncRepository repository = new SyncRepository(getApplicationContext());
+        // The worker can run without the app having been opened
+        Parser.setCache(new FeedCacheRepository(getApplicationContext()));
+        Parser.setHealthStore(new HealthRepository(getApplicationContext()));
+        List<Source> due = repository.getDueSources(System.currentTimeMillis());
+
+        FetchScheduler scheduler = FetchScheduler.getInstance();
+        List<Future<Void>> tasks = new ArrayList<>();
+        for (Source source : due) {
+            tasks.add(scheduler.submit(source.url, () -> {
+                sync(repository, source);
+                return null;
+            }));
+        }
+
+        for (Future<Void> task : tasks) {
+            if (isStopped()) {
+                task.cancel(true);
+                continue;
+            }
+            try {
+                task.get();
+            } catch (ExecutionException | CancellationException e) {
+                // Stays due and is tried again on the next run
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Result.retry();
+            }
+        }
+
+        repository.prune();
+        SyncScheduler.schedule(getApplicationContext(), repository.getNextCheck());
+        if (!due.isEmpty()) {
+            SyncScheduler.prefetch(getApplicationContext());
+        }
+        return Result.success();
+    }
+
+    private static void sync(SyncRepository repository, Source source) {
+        Parser parser = new Parser();
+        parser.load(source.url);
+
+        long now = System.currentTimeMillis();
+        SyncState state = new SyncState(source.url);
+        state.lastCheck = now;
+        if (parser.source == null || parser.isSkipped()) {
+            state.nextCheck = Math.max(now + SyncPlanner.RETRY_INTERVAL, parser.getBlockedUntil());
+            repository.store(source, null, state);
+            return;
+        }
+
+        state.nextCheck = SyncPlanner.nextCheck(now, parser.posts, parser.hints);
+        repository.store(source, parser.posts, state);
+    }
+}